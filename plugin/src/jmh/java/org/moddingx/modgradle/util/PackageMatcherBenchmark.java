@@ -0,0 +1,116 @@
+package org.moddingx.modgradle.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Compares {@link PackageMatcher} with the regex based matcher it replaced. Both matchers are checked to
+ * produce the same results before they are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PackageMatcherBenchmark {
+
+    private static final String[] SEGMENTS = { "client", "common", "data", "api", "impl", "util", "render", "network", "internal", "mixin" };
+
+    @Param({ "5", "30" })
+    public int patterns;
+
+    @Param({ "3000" })
+    public int packages;
+
+    private List<String> names;
+    private Predicate<String> trie;
+    private Predicate<String> regex;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        this.names = new ArrayList<>();
+        for (int i = 0; i < this.packages; i++) {
+            this.names.add("org.example." + name(random, 1 + random.nextInt(5)));
+        }
+        List<String> includes = new ArrayList<>();
+        List<String> excludes = new ArrayList<>();
+        for (int i = 0; i < this.patterns; i++) {
+            includes.add(pattern(random));
+            excludes.add(pattern(random));
+        }
+        this.trie = new PackageMatcher(includes, excludes).getMatcher();
+        this.regex = regexMatcher(includes, excludes);
+        for (String name : this.names) {
+            if (this.trie.test(name) != this.regex.test(name)) {
+                throw new IllegalStateException("Matchers differ on " + name);
+            }
+        }
+    }
+
+    @Benchmark
+    public void trie(Blackhole blackhole) {
+        for (String name : this.names) {
+            blackhole.consume(this.trie.test(name));
+        }
+    }
+
+    @Benchmark
+    public void regex(Blackhole blackhole) {
+        for (String name : this.names) {
+            blackhole.consume(this.regex.test(name));
+        }
+    }
+
+    private static String name(Random random, int length) {
+        StringJoiner joiner = new StringJoiner(".");
+        for (int i = 0; i < length; i++) {
+            joiner.add(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+        }
+        return joiner.toString();
+    }
+
+    private static String pattern(Random random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> "org.example." + name(random, 1) + ".**";
+            case 1 -> "org.*." + name(random, 1) + ".*?";
+            case 2 -> "*?." + name(random, 1) + ".*";
+            default -> "org.example." + name(random, 2);
+        };
+    }
+
+    // The implementation before PackageMatcher used a trie
+    private static Predicate<String> regexMatcher(List<String> packages, List<String> but) {
+        Predicate<String> includes = packages.stream()
+                .map(PackageMatcherBenchmark::pkgPattern)
+                .map(Pattern::asMatchPredicate)
+                .reduce(pkg -> false, (p1, p2) -> pkg -> p1.test(pkg) || p2.test(pkg));
+        Predicate<String> excludes = but.stream()
+                .map(PackageMatcherBenchmark::pkgPattern)
+                .map(Pattern::asMatchPredicate)
+                .reduce(pkg -> false, (p1, p2) -> pkg -> p1.test(pkg) || p2.test(pkg));
+        return pkg -> {
+            String matchStr = "." + pkg;
+            return includes.test(matchStr) && !excludes.test(matchStr);
+        };
+    }
+
+    private static Pattern pkgPattern(String pkg) {
+        String pattern = Arrays.stream(pkg.split("\\."))
+                .map(part -> switch (part) {
+                    case "**" -> "\\..+";
+                    case "*" -> "\\.[^\\.]+";
+                    case "*?" -> "\\.?.*";
+                    default -> Pattern.quote("." + part);
+                })
+                .collect(Collectors.joining(""));
+        return Pattern.compile(pattern);
+    }
+}
@@ -4,12 +4,8 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.repositories.RepositoryContentDescriptor;
-import org.gradle.api.invocation.Gradle;
 import org.moddingx.modgradle.api.ModGradleExtension;
 
-import javax.annotation.Nullable;
-import java.util.HashSet;
-import java.util.Set;
 import java.util.regex.Pattern;
 
 public class ModGradle {
@@ -38,17 +34,12 @@ public class ModGradle {
         INTERNAL = builder.create();
     }
 
-    private static final Set<Project> initialised = new HashSet<>();
-    private static Gradle gradleInstance = null;
-    
     public static synchronized void initialiseProject(Project project) {
-        if (!initialised.contains(project)) {
-            if (gradleInstance == null) {
-                gradleInstance = project.getGradle();
-            }
-            
-            initialised.add(project);
-            
+        // Creates the shared state for the build, if this is the first project
+        ModGradleBuildService.get(project).get();
+        
+        // A project is initialised once it has the extension
+        if (project.getExtensions().findByName(ModGradleExtension.EXTENSION_NAME) == null) {
             project.getExtensions().create(ModGradleExtension.EXTENSION_NAME, ModGradleExtension.class);
             
             project.getRepositories().maven(r -> {
@@ -81,9 +72,4 @@ public class ModGradle {
     private static void includeAll(RepositoryContentDescriptor content, String group) {
         content.includeGroupByRegex(Pattern.quote(group) + "(?:\\..+)?");
     }
-    
-    @Nullable
-    public static Gradle gradle() {
-        return gradleInstance;
-    }
 }
@@ -0,0 +1,96 @@
+package org.moddingx.modgradle;
+
+import org.gradle.api.Project;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.moddingx.cursewrapper.api.CurseWrapper;
+import org.moddingx.modgradle.util.cache.CacheCleanup;
+import org.moddingx.modgradle.util.cache.CacheUtil;
+import org.moddingx.modgradle.util.cache.HttpCache;
+import org.moddingx.modgradle.util.curse.CurseUtil;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * State shared by all projects of a build. The service is created when ModGradle is first applied in a build and
+ * is closed when the build finishes, so the gradle daemon does not keep projects or stale data across builds.
+ * Data that is worth keeping across builds is cached in the gradle user home instead. Unused entries of these
+ * caches are removed when the service is closed.
+ */
+public abstract class ModGradleBuildService implements BuildService<ModGradleBuildService.Params>, AutoCloseable {
+
+    public static final String NAME = "modgradle";
+
+    private final Map<String, Object> shared = new ConcurrentHashMap<>();
+    private final Set<String> warnings = ConcurrentHashMap.newKeySet();
+
+    public static Provider<ModGradleBuildService> get(Project project) {
+        return project.getGradle().getSharedServices().registerIfAbsent(NAME, ModGradleBuildService.class, spec -> {
+            spec.getParameters().getCacheRoot().set(CacheUtil.cachePath(project).toFile());
+            spec.getParameters().getHttpCache().set(CacheUtil.cachePath(project, "http").toFile());
+            spec.getParameters().getOffline().set(project.getGradle().getStartParameter().isOffline());
+        });
+    }
+
+    /**
+     * Gets a value shared during the build, creating it if it does not exist yet.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T shared(String key, Supplier<T> factory) {
+        return (T) this.shared.computeIfAbsent(key, k -> factory.get());
+    }
+
+    /**
+     * Removes a shared value, so it is created again on next access.
+     */
+    public void invalidate(String key) {
+        this.shared.remove(key);
+    }
+
+    /**
+     * Returns {@code true} exactly once per build for each key. Used to print a warning only once.
+     */
+    public boolean firstWarning(String key) {
+        return this.warnings.add(key);
+    }
+
+    public HttpCache httpCache(String name) {
+        return new HttpCache(this.getParameters().getHttpCache().get().getAsFile().toPath().resolve(name), this.getParameters().getOffline().get());
+    }
+
+    public CurseWrapper curse() {
+        return this.shared("curse", () -> new CurseWrapper(CurseUtil.ENDPOINT));
+    }
+
+    public HttpClient httpClient() {
+        return this.shared("http_client", HttpClient::newHttpClient);
+    }
+
+    @Override
+    public void close() {
+        this.shared.clear();
+        this.warnings.clear();
+        try {
+            CacheCleanup.run(this.getParameters().getCacheRoot().get().getAsFile().toPath());
+        } catch (IOException e) {
+            System.err.println("Failed to clean up ModGradle caches: " + e.getMessage());
+        }
+    }
+
+    public interface Params extends BuildServiceParameters {
+
+        DirectoryProperty getCacheRoot();
+
+        DirectoryProperty getHttpCache();
+
+        Property<Boolean> getOffline();
+    }
+}
@@ -5,6 +5,7 @@ import org.gradle.api.Project;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.compile.JavaCompile;
+import org.moddingx.modgradle.ModGradleBuildService;
 import org.moddingx.modgradle.util.DynamicObject;
 import org.moddingx.modgradle.util.MgUtil;
 
@@ -77,11 +78,12 @@ public class ModGradleExtension {
      * </ul>
      */
     public GroovyObject minecraftVersion(String minecraft) {
+        ModGradleBuildService service = ModGradleBuildService.get(this.project).get();
         DynamicObject obj = new DynamicObject();
-        obj.putAt("java", Versioning.getJavaVersion(minecraft));
-        obj.putAt("resource", Versioning.getResourceVersion(minecraft));
-        obj.putAt("data", Versioning.getDataVersion(minecraft).orElse(Versioning.getResourceVersion(minecraft)));
-        Versioning.getMixinVersion(minecraft).map(MixinVersion::release).ifPresent((String v) -> obj.putAt("mixin", v));
+        obj.putAt("java", Versioning.getJavaVersion(service, minecraft));
+        obj.putAt("resource", Versioning.getResourceVersion(service, minecraft));
+        obj.putAt("data", Versioning.getDataVersion(service, minecraft).orElse(Versioning.getResourceVersion(service, minecraft)));
+        Versioning.getMixinVersion(service, minecraft).map(MixinVersion::release).ifPresent((String v) -> obj.putAt("mixin", v));
         return obj;
     }
 }
@@ -5,98 +5,116 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonSyntaxException;
 import org.apache.maven.artifact.versioning.ArtifactVersion;
-import org.apache.maven.artifact.versioning.ComparableVersion;
 import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
 import org.gradle.api.Project;
-import org.gradle.api.invocation.Gradle;
 import org.moddingx.modgradle.ModGradle;
+import org.moddingx.modgradle.ModGradleBuildService;
+import org.moddingx.modgradle.util.MavenVersionIndex;
 import org.moddingx.modgradle.util.StringUtil;
+import org.moddingx.modgradle.util.cache.CacheUtil;
+import org.moddingx.modgradle.util.cache.HttpCache;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.Reader;
-import java.io.Writer;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.stream.Stream;
 
 /**
  * Utilities for versioning and to get data for a minecraft version..
+ * 
+ * Version data is cached in the gradle user home. The cached data is used immediately and revalidated in the
+ * background, once it is older than the duration set in the {@code modgradle.versions.ttl} system property
+ * (an ISO-8601 duration, 24 hours by default).
+ * 
+ * Tasks should use the methods that take a {@link ModGradleBuildService} and declare the service with
+ * {@code usesService}. The service keeps the parsed version data for the build.
  */
 public class Versioning {
 
-    private static final Object LOCK = new Object();
-    private static Map<String, VersionInfo> VERSION_MAP = null;
-
-    private static Map<String, VersionInfo> versionMap() {
-        synchronized (LOCK) {
-            if (VERSION_MAP == null) {
-                try {
-                    URL url = new URL("https://assets.moddingx.org/versions.json");
-                    
-                    Gradle gradle = ModGradle.gradle();
-                    Path cachePath = null;
-                    if (gradle != null) {
-                        cachePath = gradle.getGradleUserHomeDir().toPath().resolve("caches").resolve("modgradle").resolve("versions.json").toAbsolutePath().normalize();
-                    }
-                    
-                    JsonObject json = null;
-                    try (Reader in = new InputStreamReader(url.openStream())) {
-                        json = ModGradle.INTERNAL.fromJson(in, JsonObject.class);
-                        if (cachePath != null) {
-                            try {
-                                Files.createDirectories(cachePath.getParent());
-                                Writer writer = Files.newBufferedWriter(cachePath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-                                writer.write(ModGradle.INTERNAL.toJson(json) + "\n");
-                                writer.close();
-                            } catch (IOException e) {
-                                Files.deleteIfExists(cachePath);
-                            }
-                        }
-                    } catch (IOException | JsonSyntaxException e) {
-                        if (json == null && cachePath != null) {
-                            // Failed to load from server, use local cache
-                            try (Reader in = Files.newBufferedReader(cachePath)) {
-                                json = ModGradle.INTERNAL.fromJson(in, JsonObject.class);
-                            } catch (IOException | JsonSyntaxException s) {
-                                e.addSuppressed(s);
-                                throw new RuntimeException(e);
-                            }
-                        }
-                    }
-
-                    Objects.requireNonNull(json, "Version data not loaded");
-
-                    ImmutableMap.Builder<String, VersionInfo> builder = ImmutableMap.builder();
-                    for (Map.Entry<String, JsonElement> entry : json.entrySet()) {
-                        String version = entry.getKey().strip();
-                        
-                        JsonObject versionObj = entry.getValue().getAsJsonObject();
-                        
-                        int java = versionObj.get("java").getAsInt();
-                        int resource = versionObj.get("resource").getAsInt();
-                        OptionalInt data = versionObj.has("data") ? OptionalInt.of(versionObj.get("data").getAsInt()) : OptionalInt.empty();
-                        
-                        MixinVersion mixin = null;
-                        if (versionObj.has("mixin")) {
-                            String compatibility = versionObj.getAsJsonObject("mixin").get("compatibility").getAsString();
-                            String release = versionObj.getAsJsonObject("mixin").get("release").getAsString();
-                            mixin = new MixinVersion(compatibility, release);
-                        }
-
-                        builder.put(version, new VersionInfo(java, resource, data, mixin));
-                    }
-                    
-                    VERSION_MAP = builder.build();
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
+    private static final String VERSIONS_URL = "https://assets.moddingx.org/versions.json";
+    private static final Duration DEFAULT_TTL = Duration.ofHours(24);
+
+    private static final String SHARED_KEY = "versions";
+
+    private static VersionData versionMap(ModGradleBuildService service) {
+        return service.shared(SHARED_KEY, () -> {
+            try {
+                // Updated data is used on next access
+                return loadVersionMap(service.httpCache("versions").getStale(new URL(VERSIONS_URL), ttl(), () -> service.invalidate(SHARED_KEY)));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    // Without a build service, the data is read from the cache in the gradle user home on every call.
+    private static VersionData plainVersionMap() {
+        try {
+            HttpCache cache = new HttpCache(CacheUtil.defaultCachePath("http", "versions"), false);
+            return loadVersionMap(cache.get(new URL(VERSIONS_URL), ttl()));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static VersionData loadVersionMap(Path path) {
+        try {
+            JsonObject json;
+            try (Reader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                json = ModGradle.INTERNAL.fromJson(in, JsonObject.class);
+            }
+
+            Objects.requireNonNull(json, "Version data not loaded");
+
+            ImmutableMap.Builder<String, VersionInfo> builder = ImmutableMap.builder();
+            Map<String, NavigableMap<Integer, VersionInfo>> releases = new HashMap<>();
+            for (Map.Entry<String, JsonElement> entry : json.entrySet()) {
+                String version = entry.getKey().strip();
+                
+                JsonObject versionObj = entry.getValue().getAsJsonObject();
+                
+                int java = versionObj.get("java").getAsInt();
+                int resource = versionObj.get("resource").getAsInt();
+                OptionalInt data = versionObj.has("data") ? OptionalInt.of(versionObj.get("data").getAsInt()) : OptionalInt.empty();
+                
+                MixinVersion mixin = null;
+                if (versionObj.has("mixin")) {
+                    String compatibility = versionObj.getAsJsonObject("mixin").get("compatibility").getAsString();
+                    String release = versionObj.getAsJsonObject("mixin").get("release").getAsString();
+                    mixin = new MixinVersion(compatibility, release);
+                }
+
+                VersionInfo info = new VersionInfo(java, resource, data, mixin);
+                builder.put(version, info);
+                
+                // Index minor releases for the fallback to previous minor releases
+                ArtifactVersion v = new DefaultArtifactVersion(version);
+                String minor = v.getMajorVersion() + "." + v.getMinorVersion();
+                if (v.getMajorVersion() > 0 && version.equals(minor + "." + v.getIncrementalVersion())) {
+                    releases.computeIfAbsent(minor, k -> new TreeMap<>()).put(v.getIncrementalVersion(), info);
                 }
             }
-            return VERSION_MAP;
+            
+            return new VersionData(builder.build(), Map.copyOf(releases));
+        } catch (IOException | JsonSyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    private static Duration ttl() {
+        String ttl = System.getProperty("modgradle.versions.ttl");
+        if (ttl == null || ttl.isBlank()) return DEFAULT_TTL;
+        try {
+            return Duration.parse(ttl.strip());
+        } catch (DateTimeParseException e) {
+            System.err.println("Invalid version data ttl: " + ttl + ", using default.");
+            return DEFAULT_TTL;
         }
     }
 
@@ -115,20 +133,11 @@ public class Versioning {
             if (!Files.isDirectory(mavenPath)) {
                 return baseVersion + ".0";
             }
-            try (Stream<Path> paths = Files.walk(mavenPath)) {
-                return baseVersion + "." + paths
-                        .filter(path -> Files.isRegularFile(path) && path.getFileName().toString().endsWith(".pom"))
-                        .map(path -> {
-                            String fileName = path.getFileName().toString();
-                            return fileName.substring(fileName.indexOf('-', artifact.length()) + 1, fileName.length() - 4);
-                        })
-                        .filter(version -> version.startsWith(baseVersion))
-                        .max(Comparator.comparing(ComparableVersion::new))
-                        .map(ver -> ver.substring(StringUtil.lastIndexWhere(ver, chr -> "0123456789".indexOf(chr) < 0) + 1))
-                        .map(ver -> ver.isEmpty() ? "-1" : ver)
-                        .map(ver -> Integer.toString(Integer.parseInt(ver) + 1))
-                        .orElse("0");
-            }
+            return baseVersion + "." + MavenVersionIndex.get(project, mavenPath, artifact).highest(baseVersion)
+                    .map(ver -> ver.substring(StringUtil.lastIndexWhere(ver, chr -> "0123456789".indexOf(chr) < 0) + 1))
+                    .map(ver -> ver.isEmpty() ? "-1" : ver)
+                    .map(ver -> Integer.toString(Integer.parseInt(ver) + 1))
+                    .orElse("0");
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -136,48 +145,87 @@ public class Versioning {
 
     /**
      * Gets the major java version for a given version of minecraft.
+     *
+     * @deprecated Use {@link #getJavaVersion(ModGradleBuildService, String)} instead. This reads the version data from disk on every call.
      */
+    @Deprecated
     public static int getJavaVersion(String minecraft) {
-        return getMinecraftVersion(minecraft).java();
+        return getMinecraftVersion(plainVersionMap(), minecraft).java();
+    }
+
+    /**
+     * Gets the major java version for a given version of minecraft.
+     */
+    public static int getJavaVersion(ModGradleBuildService service, String minecraft) {
+        return getMinecraftVersion(versionMap(service), minecraft).java();
     }
 
     /**
      * Gets the resource pack version for a given version of minecraft.
+     *
+     * @deprecated Use {@link #getResourceVersion(ModGradleBuildService, String)} instead. This reads the version data from disk on every call.
      */
+    @Deprecated
     public static int getResourceVersion(String minecraft) {
-        return getMinecraftVersion(minecraft).resource();
+        return getMinecraftVersion(plainVersionMap(), minecraft).resource();
+    }
+
+    /**
+     * Gets the resource pack version for a given version of minecraft.
+     */
+    public static int getResourceVersion(ModGradleBuildService service, String minecraft) {
+        return getMinecraftVersion(versionMap(service), minecraft).resource();
     }
 
     /**
      * Gets the datapack version for a given version of minecraft.
      * If datapacks were not yet introduced in that version, the returned optional will be empty.
+     *
+     * @deprecated Use {@link #getDataVersion(ModGradleBuildService, String)} instead. This reads the version data from disk on every call.
      */
+    @Deprecated
     public static OptionalInt getDataVersion(String minecraft) {
-        return getMinecraftVersion(minecraft).data();
+        return getMinecraftVersion(plainVersionMap(), minecraft).data();
+    }
+
+    /**
+     * Gets the datapack version for a given version of minecraft.
+     * If datapacks were not yet introduced in that version, the returned optional will be empty.
+     */
+    public static OptionalInt getDataVersion(ModGradleBuildService service, String minecraft) {
+        return getMinecraftVersion(versionMap(service), minecraft).data();
     }
 
     /**
      * Gets the mixin version for a given version of minecraft.
+     *
+     * @deprecated Use {@link #getMixinVersion(ModGradleBuildService, String)} instead. This reads the version data from disk on every call.
      */
+    @Deprecated
     public static Optional<MixinVersion> getMixinVersion(String minecraft) {
-        return Optional.ofNullable(getMinecraftVersion(minecraft).mixin());
+        return Optional.ofNullable(getMinecraftVersion(plainVersionMap(), minecraft).mixin());
     }
 
-    private static VersionInfo getMinecraftVersion(String minecraft) {
-        Map<String, VersionInfo> map = versionMap();
-        if (map.containsKey(minecraft)) {
-            return map.get(minecraft);
+    /**
+     * Gets the mixin version for a given version of minecraft.
+     */
+    public static Optional<MixinVersion> getMixinVersion(ModGradleBuildService service, String minecraft) {
+        return Optional.ofNullable(getMinecraftVersion(versionMap(service), minecraft).mixin());
+    }
+
+    private static VersionInfo getMinecraftVersion(VersionData data, String minecraft) {
+        if (data.versions().containsKey(minecraft)) {
+            return data.versions().get(minecraft);
         }
         
         // No data for that version
         // For new minor releases, take the data of the previous minor release
         ArtifactVersion v = new DefaultArtifactVersion(minecraft);
         if (v.getMajorVersion() > 0) {
-            for (int release = v.getIncrementalVersion() - 1; release >= 0; release -= 1) {
-                String ver = v.getMajorVersion() + "." + v.getMinorVersion() + "." + release;
-                if (map.containsKey(ver)) {
-                    return map.get(ver);
-                }
+            NavigableMap<Integer, VersionInfo> releases = data.releases().get(v.getMajorVersion() + "." + v.getMinorVersion());
+            Map.Entry<Integer, VersionInfo> previous = releases == null ? null : releases.floorEntry(v.getIncrementalVersion() - 1);
+            if (previous != null) {
+                return previous.getValue();
             }
         }
         
@@ -185,5 +233,7 @@ public class Versioning {
         throw new IllegalStateException("Version information missing for " + minecraft);
     }
 
+    private record VersionData(Map<String, VersionInfo> versions, Map<String, NavigableMap<Integer, VersionInfo>> releases) {}
+    
     private record VersionInfo(int java, int resource, OptionalInt data, @Nullable MixinVersion mixin) {}
 }
@@ -13,8 +13,12 @@ import org.gradle.jvm.toolchain.JavaLanguageVersion;
 import org.gradle.jvm.toolchain.JavaLauncher;
 import org.gradle.jvm.toolchain.JavaToolchainService;
 import org.gradle.work.InputChanges;
+import org.gradle.workers.WorkQueue;
+import org.gradle.workers.WorkerExecutor;
 import org.moddingx.modgradle.ModGradle;
 import org.moddingx.modgradle.util.ConfigurationDownloader;
+import org.moddingx.modgradle.util.cache.ToolCacheService;
+import org.moddingx.modgradle.util.task.ClasspathExecAction;
 
 import javax.annotation.Nonnull;
 import javax.inject.Inject;
@@ -40,6 +44,8 @@ public abstract class ClasspathExec extends DefaultTask {
         this.getJavaVersion().convention(ModGradle.TARGET_JAVA);
         this.getJavaLauncher().convention(this.getProject().provider(() -> this.getJavaToolchainService().launcherFor(spec -> spec.getLanguageVersion().set(this.getJavaVersion().map(JavaLanguageVersion::of))).get()));
         this.getLogFile().set(this.getProject().file("build").toPath().resolve(this.getName()).resolve("log.txt").toFile());
+        this.getUseWorker().convention(false);
+        this.usesService(ToolCacheService.get(this.getProject()));
     }
 
     /**
@@ -59,6 +65,7 @@ public abstract class ClasspathExec extends DefaultTask {
      */
     @Optional
     @InputDirectory
+    @PathSensitive(PathSensitivity.RELATIVE)
     public abstract DirectoryProperty getWorkingDirectory();
     
     /**
@@ -69,6 +76,18 @@ public abstract class ClasspathExec extends DefaultTask {
 
     @Inject
     protected abstract JavaToolchainService getJavaToolchainService();
+
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    /**
+     * Whether to run the tool in a gradle worker process instead of forking a new JVM. Worker processes are
+     * kept alive and reused by later tasks with the same java launcher, so the tool runs in a warm JVM. The tool
+     * is loaded in an isolated class loader, that does not see the classes of ModGradle.
+     * The tool must not call {@link System#exit(int)} as that would kill the worker. Default is {@code false}.
+     */
+    @Internal
+    public abstract Property<Boolean> getUseWorker();
     
     /**
      * The java version to use.
@@ -88,28 +107,24 @@ public abstract class ClasspathExec extends DefaultTask {
     
     @TaskAction
     public void exec(InputChanges inputs) throws IOException {
-        ConfigurationDownloader.Executable executable = ConfigurationDownloader.executable(this.getProject(), this.getTool().get());
-        if (executable == null) throw new IllegalStateException("Could not resolve tool: " + this.getTool().get());
+        ConfigurationDownloader.Executable executable = this.resolveTool();
         List<String> arguments = this.processArgs(this.getArgs().get());
+        Path workDir = this.workingDirectory();
+        Path logFile = this.getLogFile().get().getAsFile().toPath().toAbsolutePath().normalize();
+        String java = this.getJavaLauncher().get().getExecutablePath().getAsFile().toPath().toAbsolutePath().normalize().toString();
         
-        Path workDir;
-        if (this.getWorkingDirectory().isPresent()) {
-            workDir = this.getWorkingDirectory().get().getAsFile().toPath().toAbsolutePath().normalize();
-        } else {
-            workDir = this.getProject().file("build").toPath().resolve(this.getName()).toAbsolutePath().normalize();
+        if (this.getUseWorker().get()) {
+            this.writeLogHeader(logFile, java, executable, workDir, arguments).close();
+            this.workQueue(java, workDir).submit(ClasspathExecAction.class, params -> {
+                params.getClasspath().from(executable.classpath());
+                params.getMainClass().set(executable.mainClass());
+                params.getArgs().set(arguments);
+                params.getLogFile().set(logFile.toFile());
+            });
+            return;
         }
         
-        Path logFile = this.getLogFile().get().getAsFile().toPath().toAbsolutePath().normalize();
-        PathUtils.createParentDirectories(logFile);
-        Files.createDirectories(workDir);
-        try (PrintStream out = new PrintStream(Files.newOutputStream(logFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING))) {
-            String java = this.getJavaLauncher().get().getExecutablePath().getAsFile().toPath().toAbsolutePath().normalize().toString();
-            out.println("Java: " + java);
-            out.println("Classpath: " + executable.classpath().getAsPath());
-            out.println("Working Directory: " + workDir);
-            out.println("Main Class: " + executable.mainClass());
-            out.println("Arguments: " + String.join(" ", arguments));
-            out.println("\n");
+        try (PrintStream out = this.writeLogHeader(logFile, java, executable, workDir, arguments)) {
             this.getProject().javaexec(spec -> {
                 spec.setExecutable(java);
                 spec.setClasspath(executable.classpath());
@@ -166,4 +181,72 @@ public abstract class ClasspathExec extends DefaultTask {
             }).rethrowFailure().assertNormalExitValue();
         }
     }
+
+    /**
+     * Runs the tool once for each of the given argument lists. The invocations are processed in parallel
+     * in gradle worker processes and this method waits for all of them to finish. Each invocation writes
+     * its own log file next to the log file of this task.
+     */
+    protected void execParallel(List<List<String>> invocations) throws IOException {
+        ConfigurationDownloader.Executable executable = this.resolveTool();
+        Path workDir = this.workingDirectory();
+        Path logFile = this.getLogFile().get().getAsFile().toPath().toAbsolutePath().normalize();
+        String java = this.getJavaLauncher().get().getExecutablePath().getAsFile().toPath().toAbsolutePath().normalize().toString();
+        
+        String logName = logFile.getFileName().toString();
+        String logBase = logName.contains(".") ? logName.substring(0, logName.lastIndexOf('.')) : logName;
+        WorkQueue queue = this.workQueue(java, workDir);
+        try (PrintStream out = this.writeLogHeader(logFile, java, executable, workDir, List.of())) {
+            out.println("Running " + invocations.size() + " invocations in parallel.");
+        }
+        for (int i = 0; i < invocations.size(); i++) {
+            List<String> arguments = invocations.get(i);
+            Path invocationLog = logFile.resolveSibling(logBase + "_" + i + ".txt");
+            this.writeLogHeader(invocationLog, java, executable, workDir, arguments).close();
+            queue.submit(ClasspathExecAction.class, params -> {
+                params.getClasspath().from(executable.classpath());
+                params.getMainClass().set(executable.mainClass());
+                params.getArgs().set(arguments);
+                params.getLogFile().set(invocationLog.toFile());
+            });
+        }
+        queue.await();
+    }
+    
+    private ConfigurationDownloader.Executable resolveTool() {
+        ConfigurationDownloader.Executable executable = ConfigurationDownloader.executable(this.getProject(), this.getTool().get());
+        if (executable == null) throw new IllegalStateException("Could not resolve tool: " + this.getTool().get());
+        return executable;
+    }
+    
+    private Path workingDirectory() throws IOException {
+        Path workDir;
+        if (this.getWorkingDirectory().isPresent()) {
+            workDir = this.getWorkingDirectory().get().getAsFile().toPath().toAbsolutePath().normalize();
+        } else {
+            workDir = this.getProject().file("build").toPath().resolve(this.getName()).toAbsolutePath().normalize();
+        }
+        Files.createDirectories(workDir);
+        return workDir;
+    }
+    
+    private WorkQueue workQueue(String java, Path workDir) {
+        // The tool is not put on the classpath of the worker, it gets its own class loader in the worker.
+        return this.getWorkerExecutor().processIsolation(spec -> {
+            spec.getForkOptions().setExecutable(java);
+            spec.getForkOptions().setWorkingDir(workDir.toFile());
+        });
+    }
+    
+    private PrintStream writeLogHeader(Path logFile, String java, ConfigurationDownloader.Executable executable, Path workDir, List<String> arguments) throws IOException {
+        PathUtils.createParentDirectories(logFile);
+        PrintStream out = new PrintStream(Files.newOutputStream(logFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING));
+        out.println("Java: " + java);
+        out.println("Classpath: " + executable.classpath().getAsPath());
+        out.println("Working Directory: " + workDir);
+        out.println("Main Class: " + executable.mainClass());
+        out.println("Arguments: " + String.join(" ", arguments));
+        out.println("\n");
+        return out;
+    }
 }
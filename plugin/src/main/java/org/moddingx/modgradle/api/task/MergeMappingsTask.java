@@ -1,6 +1,9 @@
 package org.moddingx.modgradle.api.task;
 
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
 import net.minecraftforge.srgutils.IMappingFile;
+import org.apache.commons.io.function.IOSupplier;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.RegularFile;
@@ -9,9 +12,13 @@ import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.*;
 import org.gradle.work.InputChanges;
 import org.moddingx.launcherlib.mappings.MappingHelper;
+import org.moddingx.modgradle.util.cache.MappingCacheService;
+import org.moddingx.modgradle.util.io.IOUtil;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -21,6 +28,7 @@ import java.util.List;
  * mapping files specified later in the list of additional mappings will also replace elements from mappings
  * specified earlier.
  */
+@CacheableTask
 public abstract class MergeMappingsTask extends DefaultTask {
 
     public MergeMappingsTask() {
@@ -28,6 +36,8 @@ public abstract class MergeMappingsTask extends DefaultTask {
         this.getRemoveParameters().convention(this.getProject().provider(() -> false));
         this.getFormat().convention("tsrg2");
         this.getOutput().convention(this.getProject().provider(() -> () -> this.getProject().file("build").toPath().resolve(this.getName()).resolve("mappings.tsrg").toFile()));
+        this.getMappingCache().set(MappingCacheService.get(this.getProject()));
+        this.usesService(this.getMappingCache());
     }
 
     /**
@@ -36,14 +46,33 @@ public abstract class MergeMappingsTask extends DefaultTask {
      */
     @InputFile
     @Optional
+    @PathSensitive(PathSensitivity.NONE)
     public abstract RegularFileProperty getPrimary();
 
     /**
      * The additional mappings to merge with the primary mappings.
      */
     @InputFiles
+    @PathSensitive(PathSensitivity.NONE)
     public abstract Property<FileCollection> getAdditional();
 
+    /**
+     * The content hashes of the additional mappings in the order they are merged.
+     */
+    // The file fingerprint of getAdditional() is unordered, but the order matters for merging.
+    @Input
+    public List<String> getAdditionalOrder() {
+        try {
+            List<String> hashes = new ArrayList<>();
+            for (File file : this.getAdditional().get()) {
+                hashes.add(Files.asByteSource(file).hash(Hashing.sha256()).toString());
+            }
+            return hashes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * The output format. Default is tsrg2.
      * Supported values are: srg, xsrg, csrg, tsrg, tsrg2, pg (ProGuard), tiny1, tiny (for tiny 2)
@@ -63,20 +92,31 @@ public abstract class MergeMappingsTask extends DefaultTask {
     @Input
     public abstract Property<Boolean> getRemoveParameters();
 
+    /**
+     * The service used to share parsed mappings between tasks.
+     */
+    @Internal
+    public abstract Property<MappingCacheService> getMappingCache();
+
     @TaskAction
     protected void mergeMappings(InputChanges inputs) throws IOException {
         IMappingFile.Format format = IMappingFile.Format.get(this.getFormat().get());
         if (format == null) {
             throw new IOException("Unknown mapping format: " + this.getFormat().get());
         }
-        List<IMappingFile> mappings = new ArrayList<>();
+        List<Path> paths = new ArrayList<>();
         RegularFile primary = this.getPrimary().getOrNull();
         if (primary != null) {
-            mappings.add(IMappingFile.load(primary.getAsFile()));
+            paths.add(primary.getAsFile().toPath());
         }
         for (File file : this.getAdditional().get()) {
-            mappings.add(IMappingFile.load(file));
+            paths.add(file.toPath());
         }
+        
+        // Load all inputs in parallel, the order is kept for merging
+        MappingCacheService cache = this.getMappingCache().get();
+        List<IMappingFile> mappings = IOUtil.parallel(paths.stream().<IOSupplier<IMappingFile>>map(path -> () -> cache.load(path)).toList());
+        
         IMappingFile merged = MappingHelper.merge(mappings);
         if (this.getRemoveParameters().get()) merged = MappingHelper.removeParameters(merged);
         merged.write(this.getOutput().getAsFile().get().toPath(), format, false);
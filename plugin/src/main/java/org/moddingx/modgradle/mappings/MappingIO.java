@@ -1,22 +1,36 @@
 package org.moddingx.modgradle.mappings;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import de.siegmar.fastcsv.reader.NamedCsvReader;
+import de.siegmar.fastcsv.reader.NamedCsvRow;
 import de.siegmar.fastcsv.writer.CsvWriter;
 import net.minecraftforge.srgutils.INamedMappingFile;
+import org.apache.commons.io.function.IOSupplier;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.moddingx.modgradle.ModGradleBuildService;
+import org.moddingx.modgradle.util.cache.HttpCache;
+import org.moddingx.modgradle.util.io.IOUtil;
 
 import javax.annotation.Nullable;
 import javax.annotation.WillClose;
-import javax.annotation.WillNotClose;
 import java.io.*;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 public class MappingIO {
-
+    
     public static INamedMappingFile readMcpConfigSrg(@WillClose InputStream in) throws IOException {
         ZipInputStream zin = new ZipInputStream(in);
         for (ZipEntry entry = zin.getNextEntry(); entry != null; entry = zin.getNextEntry()) {
@@ -37,55 +51,119 @@ public class MappingIO {
     }
     
     public static NameMappings readNames(@WillClose InputStream in, boolean unofficial) throws IOException {
-        ZipInputStream zin = new ZipInputStream(in);
-        
-        Map<String, String> fields = new HashMap<>();
-        Map<String, String> methods = new HashMap<>();
-        Map<String, String> params = new HashMap<>();
+        return readNames(in, unofficial, null);
+    }
+    
+    public static NameMappings readNames(@WillClose InputStream in, boolean unofficial, @Nullable ModGradleBuildService service) throws IOException {
+        // Entries are read concurrently through random access, so we need the zip as a file.
+        Path path = Files.createTempFile("modgradle_names", ".zip");
+        try {
+            Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+            in.close();
+            return readNames(path, unofficial, service);
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+    
+    public static NameMappings readNames(Path path) throws IOException {
+        return readNames(path, false);
+    }
+    
+    public static NameMappings readNames(Path path, boolean unofficial) throws IOException {
+        return readNames(path, unofficial, null);
+    }
 
-        Map<String, String> packageDoc = new HashMap<>();
-        Map<String, String> classDoc = new HashMap<>();
-        Map<String, String> fieldDoc = new HashMap<>();
-        Map<String, String> methodDoc = new HashMap<>();
-        
-        Names base = Names.EMPTY;
-        Javadocs baseDoc = Javadocs.EMPTY;
-        for (ZipEntry entry = zin.getNextEntry(); entry != null; entry = zin.getNextEntry()) {
-            String name = entry.getName();
-            if (name.startsWith("/")) name = name.substring(1);
-            switch (name) {
-                case "packages.csv" -> addMappingValues(zin, "searge", null, packageDoc, true);
-                case "classes.csv" -> addMappingValues(zin, "searge", null, classDoc, true);
-                case "fields.csv" -> addMappingValues(zin, "searge", fields, fieldDoc, false);
-                case "methods.csv" -> addMappingValues(zin, "searge", methods, methodDoc, false);
-                case "params.csv" -> addMappingValues(zin, "param", params, null, false);
+    /**
+     * Reads mappings from a zip file. If {@code unofficial} is set and the file references some MCP base
+     * mappings, these are downloaded. If a build service is given, downloads are cached in the gradle user home
+     * and parsed base mappings are shared for the rest of the build.
+     */
+    public static NameMappings readNames(Path path, boolean unofficial, @Nullable ModGradleBuildService service) throws IOException {
+        try (ZipFile zip = new ZipFile(path.toFile())) {
+            NameMappings base = new NameMappings(Names.EMPTY, Javadocs.EMPTY);
+            if (unofficial) {
+                ZipEntry baseEntry = entry(zip, ".mcp_base");
+                if (baseEntry != null) {
+                    String mcp_base;
+                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(zip.getInputStream(baseEntry), StandardCharsets.UTF_8))) {
+                        mcp_base = reader.readLine();
+                    }
+                    // Loaded before the CSV files of this zip, it reads its own CSV files in parallel
+                    base = readMcpBase(mcp_base, service);
+                }
             }
-            if (unofficial && name.equals(".mcp_base")) {
-                BufferedReader reader = new BufferedReader(new InputStreamReader(zin));
-                String mcp_base = reader.readLine();
-                // Don't close as it would close the entire zip stream
-                String channel = mcp_base.substring(0, mcp_base.indexOf('_'));
-                String version = mcp_base.substring(mcp_base.indexOf('_') + 1);
-                URL url = new URL("https://maven.minecraftforge.net/de/oceanlabs/mcp/mcp_" + channel + "/" + version + "/mcp_" + channel + "-" + version + ".zip");
-                NameMappings nm = readNames(url.openStream(), false);
-                base = nm.names();
-                baseDoc = nm.docs();
+
+            List<CsvValues> csv = IOUtil.parallel(List.of(
+                    csvReader(zip, "packages.csv", "searge", false, true, true),
+                    csvReader(zip, "classes.csv", "searge", false, true, true),
+                    csvReader(zip, "fields.csv", "searge", true, true, false),
+                    csvReader(zip, "methods.csv", "searge", true, true, false),
+                    csvReader(zip, "params.csv", "param", true, false, false)
+            ));
+            CsvValues packages = csv.get(0);
+            CsvValues classes = csv.get(1);
+            CsvValues fields = csv.get(2);
+            CsvValues methods = csv.get(3);
+            CsvValues params = csv.get(4);
+            return new NameMappings(
+                    base.names().merge(new Names(fields.names(), methods.names(), params.names())),
+                    base.docs().merge(new Javadocs(packages.docs(), classes.docs(), fields.docs(), methods.docs()))
+            );
+        }
+    }
+    
+    private static NameMappings readMcpBase(String mcp_base, @Nullable ModGradleBuildService service) throws IOException {
+        String channel = mcp_base.substring(0, mcp_base.indexOf('_'));
+        String version = mcp_base.substring(mcp_base.indexOf('_') + 1);
+        URL url = new URL("https://maven.minecraftforge.net/de/oceanlabs/mcp/mcp_" + channel + "/" + version + "/mcp_" + channel + "-" + version + ".zip");
+        if (service == null) {
+            return readNames(url.openStream(), false);
+        } else {
+            // Published MCP mappings never change
+            Path path = service.httpCache("mappings").get(url, HttpCache.IMMUTABLE);
+            String key = path + "@" + Files.size(path) + "@" + Files.getLastModifiedTime(path).toMillis();
+            // Values are soft, so they can be dropped when memory gets low.
+            Cache<String, NameMappings> parsed = service.shared("mcp_base", () -> CacheBuilder.newBuilder().softValues().maximumSize(16).build());
+            try {
+                return parsed.get(key, () -> readNames(path, false));
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) throw io;
+                throw new RuntimeException(e.getCause());
             }
         }
-        in.close();
-        return new NameMappings(
-                base.merge(new Names(fields, methods, params)),
-                baseDoc.merge(new Javadocs(packageDoc, classDoc, fieldDoc, methodDoc))
-        );
+    }
+    
+    @Nullable
+    private static ZipEntry entry(ZipFile zip, String name) {
+        ZipEntry entry = zip.getEntry(name);
+        return entry != null ? entry : zip.getEntry("/" + name);
+    }
+    
+    private static IOSupplier<CsvValues> csvReader(ZipFile zip, String name, String from, boolean readNames, boolean readDocs, boolean replaceName) {
+        ZipEntry entry = entry(zip, name);
+        if (entry == null) return () -> CsvValues.EMPTY;
+        return () -> {
+            try (InputStream in = zip.getInputStream(entry)) {
+                return readCsv(in, from, readNames, readDocs, replaceName);
+            }
+        };
     }
 
-    private static void addMappingValues(@WillNotClose InputStream file, String from, @Nullable Map<String, String> target, @Nullable Map<String, String> docTarget, boolean replaceName) {
-        NamedCsvReader csv = NamedCsvReader.builder().build(new InputStreamReader(file));
-        if (target != null && csv.getHeader().contains("name")) {
-            csv.stream().forEach(row -> target.put(replaceInput(row.getField(from), replaceName), replaceInput(row.getField("name"), replaceName)));
-        }
-        if (docTarget != null && csv.getHeader().contains("desc")) {
-            csv.stream().forEach(row -> docTarget.put(replaceInput(row.getField(from), replaceName), row.getField("desc")));
+    // Reads names and docs in a single pass over the file
+    private static CsvValues readCsv(InputStream in, String from, boolean readNames, boolean readDocs, boolean replaceName) throws IOException {
+        try (NamedCsvReader csv = NamedCsvReader.builder().build(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            boolean hasNames = readNames && csv.getHeader().contains("name");
+            boolean hasDocs = readDocs && csv.getHeader().contains("desc");
+            if (!hasNames && !hasDocs) return CsvValues.EMPTY;
+            Map<String, String> names = new HashMap<>();
+            Map<String, String> docs = new HashMap<>();
+            for (NamedCsvRow row : csv) {
+                String key = replaceInput(row.getField(from), replaceName);
+                if (hasNames) names.put(key, replaceInput(row.getField("name"), replaceName));
+                if (hasDocs) docs.put(key, row.getField("desc"));
+            }
+            return new CsvValues(names, docs);
         }
     }
     
@@ -100,34 +178,26 @@ public class MappingIO {
     public static void writeNames(@WillClose OutputStream out, Names names, Javadocs docs) throws IOException {
         ZipOutputStream zip = new ZipOutputStream(out);
 
-        zip.putNextEntry(new ZipEntry("fields.csv"));
-        writeCsvFile(zip, csv -> {
-            csv.writeRow("searge", "name", "side", "desc");
+        writeCsvFile(zip, "fields.csv", List.of("searge", "name", "side", "desc"), csv -> {
             for (Map.Entry<String, String> entry : names.fields().entrySet()) {
                 csv.writeRow(entry.getKey(), entry.getValue(), "2", docs.field(entry.getKey()).orElse(""));
             }
         });
 
-        zip.putNextEntry(new ZipEntry("methods.csv"));
-        writeCsvFile(zip, csv -> {
-            csv.writeRow("searge", "name", "side", "desc");
+        writeCsvFile(zip, "methods.csv", List.of("searge", "name", "side", "desc"), csv -> {
             for (Map.Entry<String, String> entry : names.methods().entrySet()) {
                 csv.writeRow(entry.getKey(), entry.getValue(), "2", docs.method(entry.getKey()).orElse(""));
             }
         });
 
-        zip.putNextEntry(new ZipEntry("params.csv"));
-        writeCsvFile(zip, csv -> {
-            csv.writeRow("param", "name", "side");
+        writeCsvFile(zip, "params.csv", List.of("param", "name", "side"), csv -> {
             for (Map.Entry<String, String> entry : names.params().entrySet()) {
                 csv.writeRow(entry.getKey(), entry.getValue(), "2");
             }
         });
 
         if (!docs.packages().isEmpty()) {
-            zip.putNextEntry(new ZipEntry("packages.csv"));
-            writeCsvFile(zip, csv -> {
-                csv.writeRow("searge", "name", "side", "desc");
+            writeCsvFile(zip, "packages.csv", List.of("searge", "name", "side", "desc"), csv -> {
                 for (Map.Entry<String, String> entry : docs.packages().entrySet()) {
                     csv.writeRow(entry.getKey().replace('/', '.'), entry.getKey().replace('/', '.'), "2", entry.getValue());
                 }
@@ -135,9 +205,7 @@ public class MappingIO {
         }
         
         if (!docs.classes().isEmpty()) {
-            zip.putNextEntry(new ZipEntry("classes.csv"));
-            writeCsvFile(zip, csv -> {
-                csv.writeRow("searge", "name", "side", "desc");
+            writeCsvFile(zip, "classes.csv", List.of("searge", "name", "side", "desc"), csv -> {
                 for (Map.Entry<String, String> entry : docs.classes().entrySet()) {
                     csv.writeRow(entry.getKey().replace('/', '.'), entry.getKey().replace('/', '.'), "2", entry.getValue());
                 }
@@ -148,19 +216,25 @@ public class MappingIO {
         out.close();
     }
     
-    private static void writeCsvFile(OutputStream out, CsvAction action) throws IOException {
-        ByteArrayOutputStream bout = new ByteArrayOutputStream();
-        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(bout));
+    // Rows are streamed directly into the zip entry
+    private static void writeCsvFile(ZipOutputStream zip, String name, List<String> header, CsvAction action) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(CloseShieldOutputStream.wrap(zip), StandardCharsets.UTF_8));
         CsvWriter csv = CsvWriter.builder().build(writer);
+        csv.writeRow(header);
         action.perform(csv);
+        // Closes the shield, not the zip stream
         csv.close();
-        writer.close();
-        bout.close();
-        bout.writeTo(out);
+        zip.closeEntry();
     }
     
     public record NameMappings(Names names, Javadocs docs) {}
     
+    private record CsvValues(Map<String, String> names, Map<String, String> docs) {
+        
+        public static final CsvValues EMPTY = new CsvValues(Map.of(), Map.of());
+    }
+    
     private interface CsvAction {
         void perform(CsvWriter writer) throws IOException;
     }
@@ -1,5 +1,6 @@
 package org.moddingx.modgradle.plugins.coremods;
 
+import com.google.gson.JsonObject;
 import org.apache.commons.io.file.PathUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.gradle.api.DefaultTask;
@@ -11,14 +12,16 @@ import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.*;
 import org.gradle.work.InputChanges;
+import org.moddingx.modgradle.ModGradle;
+import org.moddingx.modgradle.ModGradleBuildService;
 import org.moddingx.modgradle.util.hash.HashCache;
 import org.moddingx.modgradle.util.io.IOUtil;
 import org.moddingx.modgradle.util.MgUtil;
-import org.moddingx.modgradle.util.io.ProcessUtil;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -31,6 +34,12 @@ public abstract class BuildCoreModsTask extends DefaultTask {
     public BuildCoreModsTask() {
         this.getTargetDir().set(this.getProject().file("build").toPath().resolve("coremods").toFile());
         this.getIsCI().convention(MgUtil.isRunningInCI(this.getProject()));
+        this.getTypeScriptVersion().convention(TypeScriptToolchain.DEFAULT_VERSION);
+        this.getNpmRegistry().convention(TypeScriptToolchain.DEFAULT_REGISTRY);
+        this.getCompilerDaemon().convention(false);
+        this.getDaemonService().set(TypeScriptDaemonService.get(this.getProject()));
+        this.usesService(this.getDaemonService());
+        this.usesService(ModGradleBuildService.get(this.getProject()));
     }
 
     @InputFile
@@ -42,6 +51,39 @@ public abstract class BuildCoreModsTask extends DefaultTask {
     @Input
     public abstract Property<Boolean> getIsCI();
 
+    /**
+     * The version of TypeScript to use.
+     */
+    @Input
+    public abstract Property<String> getTypeScriptVersion();
+
+    /**
+     * The npm registry to download TypeScript from. Can be set to a mirror.
+     */
+    @Input
+    public abstract Property<String> getNpmRegistry();
+
+    /**
+     * A local npm package tarball of TypeScript. If set, TypeScript is installed from this file instead of the registry.
+     */
+    @Optional
+    @InputFile
+    public abstract RegularFileProperty getTypeScriptTarball();
+
+    /**
+     * Whether to keep a TypeScript compiler running in the background. The compiler is kept by the gradle daemon
+     * across builds and exits after being idle for {@link TypeScriptDaemonService#IDLE_TIMEOUT}. This avoids
+     * starting node and loading the compiler again for every project and every build that compiles core mods.
+     */
+    @Internal
+    public abstract Property<Boolean> getCompilerDaemon();
+
+    /**
+     * The service that owns the compiler daemons.
+     */
+    @Internal
+    public abstract Property<TypeScriptDaemonService> getDaemonService();
+
     @OutputDirectory
     public abstract DirectoryProperty getTargetDir();
     
@@ -96,8 +138,13 @@ public abstract class BuildCoreModsTask extends DefaultTask {
                 Files.copy(fs.getPath("tsconfig.json"), target.resolve("tsconfig.json"), StandardCopyOption.REPLACE_EXISTING);
             }
 
-            ProcessUtil.run(install, "npm", "install", "typescript");
-            ProcessUtil.run(target, "npx", "tsc");
+            Path tarball = this.getTypeScriptTarball().isPresent() ? this.getTypeScriptTarball().get().getAsFile().toPath() : null;
+            TypeScriptToolchain typescript = TypeScriptToolchain.get(this.getProject(), this.getTypeScriptVersion().get(), this.getNpmRegistry().get(), tarball);
+            // Compile incrementally, the build info is kept next to the sources in the output directory.
+            // The wrapper config only adds the incremental options to the one from CoreModTypes.
+            Path config = install.resolve("tsconfig.json");
+            Files.writeString(config, ModGradle.INTERNAL.toJson(incrementalConfig()) + "\n", StandardCharsets.UTF_8);
+            typescript.compile(config, this.getCompilerDaemon().get() ? this.getDaemonService().get() : null, this.getLogger());
             
             for (Pair<Path, Path> entry : compileResultCopy) {
                 Files.copy(entry.getKey(), entry.getValue(), StandardCopyOption.REPLACE_EXISTING);
@@ -111,4 +158,14 @@ public abstract class BuildCoreModsTask extends DefaultTask {
             }
         }
     }
+
+    private static JsonObject incrementalConfig() {
+        JsonObject compilerOptions = new JsonObject();
+        compilerOptions.addProperty("incremental", true);
+        compilerOptions.addProperty("tsBuildInfoFile", "./coremods.tsbuildinfo");
+        JsonObject json = new JsonObject();
+        json.addProperty("extends", "./ts/tsconfig.json");
+        json.add("compilerOptions", compilerOptions);
+        return json;
+    }
 }
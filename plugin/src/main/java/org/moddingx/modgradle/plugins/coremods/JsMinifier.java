@@ -0,0 +1,167 @@
+package org.moddingx.modgradle.plugins.coremods;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+
+/**
+ * A conservative minifier for the javascript emitted by tsc. It removes comments, indentation and
+ * redundant whitespace. Line breaks are kept, so automatic semicolon insertion works as before.
+ * Strings, template literals and regular expression literals are copied unchanged.
+ */
+public class JsMinifier {
+
+    // Characters after which a slash starts a regular expression instead of a division
+    private static final String REGEX_PRECEDING = "(,=:[!&|?{};+-*%<>~^";
+    
+    // Keywords after which a slash starts a regular expression instead of a division
+    private static final Set<String> REGEX_KEYWORDS = Set.of(
+            "return", "typeof", "case", "in", "of", "new", "delete", "void", "throw", "instanceof"
+    );
+    
+    // Keywords that are followed by a parenthesised condition. A slash after the closing parenthesis starts
+    // a regular expression, like in 'if (a) /b/.test(c)'. After other parentheses, it is a division.
+    private static final Set<String> CONDITION_KEYWORDS = Set.of("if", "while", "for", "with");
+
+    public static String minify(String js) {
+        StringBuilder sb = new StringBuilder(js.length());
+        int len = js.length();
+        int i = 0;
+        boolean pendingSpace = false;
+        boolean pendingNewline = false;
+        // For every open parenthesis, whether it starts the condition of a statement
+        Deque<Boolean> parens = new ArrayDeque<>();
+        boolean closedCondition = false;
+        while (i < len) {
+            char chr = js.charAt(i);
+            if (chr == '\n' || chr == '\r') {
+                pendingNewline = true;
+                i += 1;
+            } else if (Character.isWhitespace(chr)) {
+                pendingSpace = true;
+                i += 1;
+            } else if (chr == '/' && i + 1 < len && js.charAt(i + 1) == '/') {
+                while (i < len && js.charAt(i) != '\n' && js.charAt(i) != '\r') i += 1;
+            } else if (chr == '/' && i + 1 < len && js.charAt(i + 1) == '*') {
+                int end = js.indexOf("*/", i + 2);
+                if (end < 0) end = len - 2;
+                String comment = js.substring(i, end + 2);
+                if (comment.indexOf('\n') >= 0 || comment.indexOf('\r') >= 0) {
+                    pendingNewline = true;
+                } else {
+                    pendingSpace = true;
+                }
+                i = end + 2;
+            } else {
+                if (pendingNewline) {
+                    if (!sb.isEmpty()) sb.append('\n');
+                } else if (pendingSpace && !sb.isEmpty() && needsSpace(sb.charAt(sb.length() - 1), chr)) {
+                    sb.append(' ');
+                }
+                pendingNewline = false;
+                pendingSpace = false;
+                if (chr == '"' || chr == '\'' || chr == '`') {
+                    i = copyString(js, i, sb);
+                } else if (chr == '/' && isRegexStart(sb, closedCondition)) {
+                    i = copyRegex(js, i, sb);
+                } else {
+                    if (chr == '(') {
+                        parens.push(CONDITION_KEYWORDS.contains(lastWord(sb)));
+                    } else if (chr == ')') {
+                        closedCondition = !parens.isEmpty() && parens.pop();
+                    }
+                    sb.append(chr);
+                    i += 1;
+                }
+            }
+        }
+        if (!sb.isEmpty()) sb.append('\n');
+        return sb.toString();
+    }
+
+    private static boolean needsSpace(char before, char after) {
+        // Keep spaces between words and between operators that would merge, like a + +b
+        if (isWordChar(before) && isWordChar(after)) return true;
+        if (Character.isDigit(before) && after == '.') return true;
+        return (before == '+' || before == '-' || before == '/') && (after == before || after == '=');
+    }
+
+    private static boolean isWordChar(char chr) {
+        return Character.isLetterOrDigit(chr) || chr == '_' || chr == '$' || chr == '\\' || chr > 127;
+    }
+
+    // closedCondition: Whether the last closing parenthesis ended the condition of a statement
+    private static boolean isRegexStart(StringBuilder sb, boolean closedCondition) {
+        int idx = lastSignificant(sb);
+        if (idx < 0) return true;
+        char before = sb.charAt(idx);
+        // The operand of ++ and -- can't be a regular expression, so these are always postfix operators
+        // followed by a division. Separate + and - signs are kept apart by a space.
+        if ((before == '+' || before == '-') && idx > 0 && sb.charAt(idx - 1) == before) return false;
+        if (REGEX_PRECEDING.indexOf(before) >= 0) return true;
+        if (before == ')') return closedCondition;
+        if (!isWordChar(before)) return false;
+        return REGEX_KEYWORDS.contains(lastWord(sb));
+    }
+
+    // The word that ends at the last non-whitespace character or an empty string
+    private static String lastWord(StringBuilder sb) {
+        int idx = lastSignificant(sb);
+        int start = idx + 1;
+        while (start > 0 && isWordChar(sb.charAt(start - 1))) start -= 1;
+        return sb.substring(start, idx + 1);
+    }
+
+    private static int lastSignificant(StringBuilder sb) {
+        int idx = sb.length() - 1;
+        while (idx >= 0 && Character.isWhitespace(sb.charAt(idx))) idx -= 1;
+        return idx;
+    }
+
+    private static int copyString(String js, int start, StringBuilder sb) {
+        char quote = js.charAt(start);
+        int i = start + 1;
+        while (i < js.length()) {
+            char chr = js.charAt(i);
+            if (chr == '\\') {
+                i += 2;
+            } else if (chr == quote) {
+                i += 1;
+                break;
+            } else {
+                i += 1;
+            }
+        }
+        i = Math.min(i, js.length());
+        sb.append(js, start, i);
+        return i;
+    }
+
+    private static int copyRegex(String js, int start, StringBuilder sb) {
+        int i = start + 1;
+        boolean inClass = false;
+        while (i < js.length()) {
+            char chr = js.charAt(i);
+            if (chr == '\\') {
+                i += 2;
+            } else if (chr == '\n' || chr == '\r') {
+                break;
+            } else if (chr == '[') {
+                inClass = true;
+                i += 1;
+            } else if (chr == ']') {
+                inClass = false;
+                i += 1;
+            } else if (chr == '/' && !inClass) {
+                i += 1;
+                while (i < js.length() && isWordChar(js.charAt(i))) i += 1;
+                break;
+            } else {
+                i += 1;
+            }
+        }
+        i = Math.min(i, js.length());
+        sb.append(js, start, i);
+        return i;
+    }
+}
@@ -5,6 +5,8 @@ import org.apache.commons.io.file.PathUtils;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputDirectory;
 import org.gradle.api.tasks.InputFile;
 import org.gradle.api.tasks.OutputDirectory;
@@ -29,9 +31,14 @@ import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 public abstract class PackCoreModsTask extends DefaultTask {
-    
+
+    // Location of the shared base script inside the mod file
+    public static final String PRELUDE_PATH = "META-INF/coremods/prelude.js";
+
     public PackCoreModsTask() {
         this.getTargetDir().set(this.getProject().file("build").toPath().resolve("coremods").resolve("js").toFile());
+        this.getSharedPrelude().convention(false);
+        this.getMinify().convention(false);
     }
 
     @InputFile
@@ -40,6 +47,21 @@ public abstract class PackCoreModsTask extends DefaultTask {
     @InputDirectory
     public abstract DirectoryProperty getSourceDir();
 
+    /**
+     * Whether the base script from the types jar is written once and loaded by each coremod instead of being
+     * prepended to every coremod. CoreMods evaluates each coremod in its own script engine, so the base script
+     * is still evaluated once per coremod, this only makes the mod file smaller. Requires {@code ASMAPI.loadFile}
+     * which is available from CoreMods 5.0.0. Default is {@code false}.
+     */
+    @Input
+    public abstract Property<Boolean> getSharedPrelude();
+
+    /**
+     * Whether comments and redundant whitespace are removed from the packed coremods.
+     */
+    @Input
+    public abstract Property<Boolean> getMinify();
+
     @OutputDirectory
     public abstract DirectoryProperty getTargetDir();
 
@@ -59,10 +81,21 @@ public abstract class PackCoreModsTask extends DefaultTask {
         Path target = this.getTargetDir().get().getAsFile().toPath();
         Files.createDirectories(target);
         
+        boolean minify = this.getMinify().get();
         String baseJs;
         try (FileSystem fs = IOUtil.getFileSystem(URI.create("jar:" + this.getCoreModTypes().get().getAsFile().toPath().toUri()))) {
             baseJs = Files.readString(fs.getPath("coremods.js"), StandardCharsets.UTF_8) + "\n";
         }
+        if (minify) baseJs = JsMinifier.minify(baseJs);
+
+        Path preludePath = target.resolve(PRELUDE_PATH);
+        if (this.getSharedPrelude().get()) {
+            PathUtils.createParentDirectories(preludePath);
+            Files.writeString(preludePath, baseJs, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            baseJs = "if (!Java.type('net.minecraftforge.coremod.api.ASMAPI').loadFile('" + PRELUDE_PATH + "')) throw 'Failed to load coremod prelude';\n";
+        } else {
+            Files.deleteIfExists(preludePath);
+        }
 
         JsonObject json = new JsonObject();
         for (Path loc : coreMods.stream().sorted(Comparator.nullsFirst(Comparator.comparing(Path::getFileName))).toList()) {
@@ -70,7 +103,8 @@ public abstract class PackCoreModsTask extends DefaultTask {
             PathUtils.createParentDirectories(dest);
             Writer writer = Files.newBufferedWriter(dest, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
             writer.write(baseJs + "\n");
-            writer.write(Files.readString(source.resolve(loc), StandardCharsets.UTF_8) + "\n");
+            String coreModJs = Files.readString(source.resolve(loc), StandardCharsets.UTF_8) + "\n";
+            writer.write(minify ? JsMinifier.minify(coreModJs) : coreModJs);
             writer.close();
             
             String name = loc.getFileName() == null ? "" : loc.getFileName().toString();
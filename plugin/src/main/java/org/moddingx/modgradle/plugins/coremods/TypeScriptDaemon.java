@@ -0,0 +1,80 @@
+package org.moddingx.modgradle.plugins.coremods;
+
+import org.gradle.api.logging.Logger;
+import org.moddingx.modgradle.util.cache.CacheUtil;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * A node process that keeps the TypeScript compiler loaded. This saves the node startup and the time to load
+ * the compiler on every compilation. Daemons are provided by a {@link TypeScriptDaemonService}. The process
+ * builds with the same solution builder as {@code tsc -b}.
+ */
+class TypeScriptDaemon {
+
+    private static final String MARKER = "@@modgradle-tsc ";
+
+    private final Process process;
+    private final Writer input;
+    private final BufferedReader output;
+    private volatile long lastUsed;
+
+    private TypeScriptDaemon(Process process) {
+        this.process = process;
+        this.input = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+        this.output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        this.lastUsed = System.currentTimeMillis();
+    }
+
+    public boolean isAlive() {
+        return this.process.isAlive();
+    }
+
+    public boolean isIdle(Duration duration) {
+        return System.currentTimeMillis() - this.lastUsed > duration.toMillis();
+    }
+
+    public void stop() {
+        this.process.destroy();
+    }
+
+    public static TypeScriptDaemon start(Path installation, Duration idleTimeout) throws IOException {
+        Path script = installation.resolve("tsc_daemon.js");
+        try (InputStream in = TypeScriptDaemon.class.getResourceAsStream("/" + TypeScriptDaemon.class.getPackage().getName().replace('.', '/') + "/tsc_daemon.js")) {
+            if (in == null) throw new IllegalStateException("TypeScript daemon script not found in ModGradle.");
+            byte[] data = in.readAllBytes();
+            if (!Files.isRegularFile(script) || !Arrays.equals(data, Files.readAllBytes(script))) {
+                CacheUtil.publish(script, out -> out.write(data));
+            }
+        }
+        ProcessBuilder pb = new ProcessBuilder("node", script.toAbsolutePath().normalize().toString(), installation.resolve("package").toAbsolutePath().normalize().toString(), Long.toString(idleTimeout.toMillis()));
+        pb.redirectErrorStream(true);
+        pb.directory(installation.toFile());
+        return new TypeScriptDaemon(pb.start());
+    }
+
+    public synchronized void build(Path config, Logger logger) throws IOException {
+        this.lastUsed = System.currentTimeMillis();
+        this.input.write(config.toAbsolutePath().normalize() + "\n");
+        this.input.flush();
+        String line;
+        while ((line = this.output.readLine()) != null) {
+            if (line.startsWith(MARKER)) {
+                int status = Integer.parseInt(line.substring(MARKER.length()).strip());
+                this.lastUsed = System.currentTimeMillis();
+                if (status != 0) {
+                    throw new IOException("TypeScript compiler daemon returned exit status " + status + ": " + config);
+                }
+                return;
+            } else if (!line.isEmpty()) {
+                logger.error(line);
+            }
+        }
+        throw new IOException("TypeScript compiler daemon terminated unexpectedly.");
+    }
+}
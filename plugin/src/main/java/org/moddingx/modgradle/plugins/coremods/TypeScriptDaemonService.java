@@ -0,0 +1,70 @@
+package org.moddingx.modgradle.plugins.coremods;
+
+import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A build service that provides TypeScript compiler daemons, one per TypeScript installation. Daemons are kept
+ * by the gradle daemon across builds, so continuous and repeated builds don't start node and load the compiler
+ * again. A daemon exits on its own when it was not used for {@link #IDLE_TIMEOUT} or when the gradle daemon exits.
+ */
+public abstract class TypeScriptDaemonService implements BuildService<BuildServiceParameters.None>, AutoCloseable {
+
+    public static final String NAME = "modgradle_typescript";
+
+    public static final Duration IDLE_TIMEOUT = Duration.ofMinutes(15);
+    
+    // Daemons close to their idle timeout are replaced instead of reused, so they don't exit during a compilation.
+    private static final Duration REUSE_TIMEOUT = IDLE_TIMEOUT.minusMinutes(1);
+
+    // The node processes outlive a build on purpose, this only keeps the handles to them.
+    // Each process exits on its own, when it is idle or when its input is closed with the gradle daemon.
+    private static final Map<Path, TypeScriptDaemon> DAEMONS = new HashMap<>();
+
+    public static Provider<TypeScriptDaemonService> get(Project project) {
+        return project.getGradle().getSharedServices().registerIfAbsent(NAME, TypeScriptDaemonService.class, spec -> {});
+    }
+
+    /**
+     * Compiles the project described by a tsconfig file with the daemon for the given installation,
+     * starting it if required. Compiler output is written to the given logger.
+     */
+    public void build(Path installation, Path config, Logger logger) throws IOException {
+        TypeScriptDaemon daemon;
+        synchronized (DAEMONS) {
+            daemon = DAEMONS.get(installation);
+            if (daemon == null || !daemon.isAlive() || daemon.isIdle(REUSE_TIMEOUT)) {
+                if (daemon != null) daemon.stop();
+                daemon = TypeScriptDaemon.start(installation, IDLE_TIMEOUT);
+                DAEMONS.put(installation, daemon);
+            }
+        }
+        try {
+            daemon.build(config, logger);
+        } catch (IOException e) {
+            if (!daemon.isAlive()) {
+                synchronized (DAEMONS) {
+                    DAEMONS.remove(installation, daemon);
+                }
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        // Running daemons are kept for the next build, only forget about the ones that exited.
+        synchronized (DAEMONS) {
+            DAEMONS.values().removeIf(daemon -> !daemon.isAlive());
+        }
+    }
+}
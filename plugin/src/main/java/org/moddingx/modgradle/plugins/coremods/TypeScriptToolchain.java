@@ -0,0 +1,103 @@
+package org.moddingx.modgradle.plugins.coremods;
+
+import com.google.common.hash.Hashing;
+import org.apache.commons.io.file.PathUtils;
+import org.gradle.api.Project;
+import org.gradle.api.logging.Logger;
+import org.moddingx.modgradle.ModGradleBuildService;
+import org.moddingx.modgradle.util.cache.CacheUtil;
+import org.moddingx.modgradle.util.cache.HttpCache;
+import org.moddingx.modgradle.util.io.ProcessUtil;
+import org.moddingx.modgradle.util.io.TarUtil;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A TypeScript compiler installed into the gradle user home. Each version is installed once and shared by
+ * all projects. The package is either taken from a local tarball or downloaded from an npm registry.
+ * Only node is required to run the compiler, npm is not used.
+ */
+public class TypeScriptToolchain {
+
+    public static final String DEFAULT_VERSION = "5.1.6";
+    public static final String DEFAULT_REGISTRY = "https://registry.npmjs.org";
+
+    private final Path installation;
+
+    private TypeScriptToolchain(Path installation) {
+        this.installation = installation;
+    }
+
+    /**
+     * Gets the toolchain for a version, installing it if required.
+     *
+     * @param tarball A local npm package tarball of typescript. If this is set, the registry is not used.
+     */
+    public static TypeScriptToolchain get(Project project, String version, String registry, @Nullable Path tarball) throws IOException {
+        Path installation;
+        if (tarball != null) {
+            String hash = com.google.common.io.Files.asByteSource(tarball.toFile()).hash(Hashing.sha256()).toString();
+            installation = CacheUtil.cachePath(project, "typescript", "local_" + hash);
+        } else {
+            installation = CacheUtil.cachePath(project, "typescript", version);
+        }
+        Path marker = installation.resolve(".installed");
+        if (!Files.isRegularFile(marker)) {
+            CacheUtil.locked(installation, () -> {
+                if (!Files.isRegularFile(marker)) {
+                    if (Files.exists(installation)) PathUtils.deleteDirectory(installation);
+                    Files.createDirectories(installation);
+                    Path packageFile = tarball != null ? tarball : download(project, version, registry);
+                    try (InputStream in = Files.newInputStream(packageFile)) {
+                        TarUtil.extractGzip(in, installation);
+                    }
+                    CacheUtil.publish(marker, out -> out.write(new byte[0]));
+                }
+                return null;
+            });
+        } else {
+            CacheUtil.markUsed(installation);
+        }
+        return new TypeScriptToolchain(installation);
+    }
+
+    private static Path download(Project project, String version, String registry) throws IOException {
+        String base = registry.endsWith("/") ? registry.substring(0, registry.length() - 1) : registry;
+        URL url = new URL(base + "/typescript/-/typescript-" + version + ".tgz");
+        return ModGradleBuildService.get(project).get().httpCache("npm").get(url, HttpCache.IMMUTABLE);
+    }
+
+    /**
+     * Builds the project described by a tsconfig file like {@code tsc -b}.
+     *
+     * @param daemons The service to get a long running compiler from or {@code null} to run the compiler once.
+     * @param logger  The logger for compiler output of a long running compiler.
+     */
+    public void compile(Path config, @Nullable TypeScriptDaemonService daemons, Logger logger) throws IOException {
+        if (daemons != null) {
+            daemons.build(this.installation, config, logger);
+        } else {
+            this.tsc(config.toAbsolutePath().normalize().getParent(), "-b", config.toAbsolutePath().normalize().toString());
+        }
+    }
+
+    /**
+     * Runs the TypeScript compiler in the given directory.
+     */
+    public void tsc(Path dir, String... args) throws IOException {
+        Path tsc = this.installation.resolve("package").resolve("bin").resolve("tsc");
+        if (!Files.isRegularFile(tsc)) throw new IOException("Invalid TypeScript installation: " + this.installation);
+        List<String> command = new ArrayList<>();
+        command.add("node");
+        command.add(tsc.toAbsolutePath().normalize().toString());
+        command.addAll(List.of(args));
+        ProcessUtil.run(dir, command.toArray(String[]::new));
+    }
+}
@@ -5,10 +5,10 @@ import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.moddingx.modgradle.ModGradle;
 import org.moddingx.modgradle.util.curse.CurseUtil;
+import org.moddingx.modgradle.util.curse.SlugCache;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.io.IOException;
 
 public class CurseDepPlugin implements Plugin<Project> {
 
@@ -27,8 +27,8 @@ public class CurseDepPlugin implements Plugin<Project> {
         return project.getExtensions().getByType(DependencyManagementExtension.class);
     }
 
-    public static String curseArtifact(int projectId, int fileId) {
-        return curseArtifact(getSlug(projectId), projectId, fileId);
+    public static String curseArtifact(Project project, int projectId, int fileId) {
+        return curseArtifact(getSlug(project, projectId), projectId, fileId);
     }
 
     public static String curseArtifact(String slug, int projectId, int fileId) {
@@ -39,11 +39,7 @@ public class CurseDepPlugin implements Plugin<Project> {
         return "curse.maven:" + slug + "-" + projectId + ":" + fileId + (extension == null ? "" : "@" + extension);
     }
 
-    public static String getSlug(int projectId) {
-        try {
-            return CurseUtil.API.getSlug(projectId);
-        } catch (IOException e) {
-            return "unknown";
-        }
+    public static String getSlug(Project project, int projectId) {
+        return SlugCache.get(project).get(projectId);
     }
 }
\ No newline at end of file
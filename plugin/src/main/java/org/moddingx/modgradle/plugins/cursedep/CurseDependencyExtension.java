@@ -1,7 +1,10 @@
 package org.moddingx.modgradle.plugins.cursedep;
 
 import com.google.common.collect.Sets;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import groovy.lang.GroovyObjectSupport;
 import net.minecraftforge.gradle.common.util.MavenArtifactDownloader;
 import net.minecraftforge.gradle.userdev.DependencyManagementExtension;
@@ -9,14 +12,18 @@ import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.Dependency;
 import org.moddingx.modgradle.ModGradle;
+import org.moddingx.modgradle.util.cache.CacheUtil;
+import org.moddingx.modgradle.util.curse.SlugCache;
 
 import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.util.Collections;
-import java.util.List;
-import java.util.Set;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -30,13 +37,14 @@ public class CurseDependencyExtension extends GroovyObjectSupport {
     @Nullable
     private final DependencyManagementExtension ext;
 
+    @Nullable
     public CurseDependencyExtension(Project project, @Nullable DependencyManagementExtension ext) {
         this.project = project;
         this.ext = ext;
     }
 
     public Dependency mod(int projectId, int fileId) {
-        return this.createDependency(CurseDepPlugin.curseArtifact(projectId, fileId));
+        return this.createDependency(CurseDepPlugin.curseArtifact(SlugCache.get(this.project).get(projectId), projectId, fileId));
     }
 
     public Dependency pack(int projectId, int fileId) {
@@ -63,45 +71,95 @@ public class CurseDependencyExtension extends GroovyObjectSupport {
             return this.project.getDependencies().create(cache);
         }
 
+        List<ManifestFile> manifest = this.manifest(projectId, fileId);
+        Map<Integer, String> slugs = SlugCache.get(this.project).get(manifest.stream()
+                .map(ManifestFile::projectId)
+                .filter(p -> !idExcludes.contains(p))
+                .collect(Collectors.toSet()));
+        
+        Configuration config = this.project.getConfigurations().create(configName);
+        for (ManifestFile entry : manifest) {
+            int p = entry.projectId();
+            if (!idExcludes.contains(p)) {
+                int f = entry.fileId();
+                String slug = slugs.get(p);
+                if (!slugExcludes.contains(slug)) {
+                    config.getDependencies().add(this.createDependency(CurseDepPlugin.curseArtifact(slug, p, f)));
+                }
+            }
+        }
+        return this.project.getDependencies().create(config);
+    }
+
+    // The files of a modpack never change, so the parsed manifest is cached by pack file id.
+    private List<ManifestFile> manifest(int projectId, int fileId) {
+        Path cachePath = CacheUtil.cachePath(this.project, "curse", "manifests", projectId + "_" + fileId + ".json");
+        if (Files.isRegularFile(cachePath)) {
+            try {
+                List<ManifestFile> files = readManifest(ModGradle.INTERNAL.fromJson(Files.readString(cachePath, StandardCharsets.UTF_8), JsonElement.class));
+                CacheUtil.markUsed(cachePath);
+                return files;
+            } catch (IOException | JsonParseException | NullPointerException | IllegalStateException e) {
+                // Broken cache, load it again
+            }
+        }
+
         // Must be manual, so we don't include the DeobfuscatingRepo
         // see https://github.com/MinecraftForge/ForgeGradle/pull/911 and https://github.com/MinecraftForge/ForgeGradle/issues/912
         File file = MavenArtifactDownloader.manual(this.project, CurseDepPlugin.curseArtifact("O", projectId, fileId, "zip"), false);
         if (file == null) {
             throw new IllegalStateException("Cannot create curse ModPack dependency: Failed to download manifest");
-        } else try {
-            ZipFile zipFile = new ZipFile(file);
+        }
+        try (ZipFile zipFile = new ZipFile(file)) {
             ZipEntry entry = zipFile.getEntry("manifest.json");
             if (entry == null) entry = zipFile.getEntry("/manifest.json");
             if (entry == null) {
                 throw new IllegalStateException("Cannot create curse ModPack dependency: Pack file contains no manifest");
             }
 
-            InputStreamReader reader = new InputStreamReader(zipFile.getInputStream(entry));
-            JsonElement json = ModGradle.GSON.fromJson(reader, JsonElement.class);
-            reader.close();
-            Configuration config = this.project.getConfigurations().create(configName);
-
-            for (JsonElement fileJson : json.getAsJsonObject().get("files").getAsJsonArray()) {
-                int p = fileJson.getAsJsonObject().get("projectID").getAsInt();
-                if (!idExcludes.contains(p)) {
-                    int f = fileJson.getAsJsonObject().get("fileID").getAsInt();
-                    String slug = CurseDepPlugin.getSlug(p);
-                    if (!slugExcludes.contains(slug)) {
-                        config.getDependencies().add(this.createDependency(CurseDepPlugin.curseArtifact(slug, p, f)));
-                    }
-                }
+            JsonElement json;
+            try (Reader reader = new InputStreamReader(zipFile.getInputStream(entry), StandardCharsets.UTF_8)) {
+                json = ModGradle.GSON.fromJson(reader, JsonElement.class);
             }
-
-            return this.project.getDependencies().create(config);
+            List<ManifestFile> files = readManifest(json);
+            
+            JsonArray array = new JsonArray();
+            for (ManifestFile manifestFile : files) {
+                JsonObject fileJson = new JsonObject();
+                fileJson.addProperty("projectID", manifestFile.projectId());
+                fileJson.addProperty("fileID", manifestFile.fileId());
+                array.add(fileJson);
+            }
+            JsonObject cached = new JsonObject();
+            cached.add("files", array);
+            byte[] data = (ModGradle.INTERNAL.toJson(cached) + "\n").getBytes(StandardCharsets.UTF_8);
+            try {
+                CacheUtil.publish(cachePath, out -> out.write(data));
+            } catch (IOException e) {
+                System.err.println("Failed to cache curse modpack manifest: " + e.getMessage());
+            }
+            return files;
         } catch (IOException e) {
             throw new IllegalStateException("Cannot create curse ModPack dependency: " + e.getMessage(), e);
         }
     }
 
+    private static List<ManifestFile> readManifest(JsonElement json) {
+        List<ManifestFile> files = new ArrayList<>();
+        for (JsonElement fileJson : json.getAsJsonObject().get("files").getAsJsonArray()) {
+            int p = fileJson.getAsJsonObject().get("projectID").getAsInt();
+            int f = fileJson.getAsJsonObject().get("fileID").getAsInt();
+            files.add(new ManifestFile(p, f));
+        }
+        return List.copyOf(files);
+    }
+
     private Dependency createDependency(Object obj) {
         if (this.ext == null) {
             return this.project.getDependencies().create(obj);
         }
         return this.ext.deobf(obj);
     }
+
+    private record ManifestFile(int projectId, int fileId) {}
 }
@@ -6,13 +6,11 @@ import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
-import org.gradle.api.tasks.Input;
-import org.gradle.api.tasks.InputFiles;
-import org.gradle.api.tasks.OutputFile;
-import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.*;
 import org.gradle.work.InputChanges;
+import org.moddingx.modgradle.ModGradleBuildService;
 import org.moddingx.modgradle.util.java.JavaEnv;
-import org.moddingx.modgradle.util.java.JavaHelper;
+import org.moddingx.modgradle.util.java.PackageIndex;
 import org.moddingx.modgradle.util.PackageMatcher;
 
 import java.io.BufferedWriter;
@@ -23,8 +21,7 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Stream;
+import java.util.function.Predicate;
 
 public abstract class JavadocConfigureTask extends DefaultTask {
 
@@ -33,10 +30,11 @@ public abstract class JavadocConfigureTask extends DefaultTask {
         this.getExcludes().convention(this.getProject().provider(ArrayList::new));
         this.getIncludes().convention(this.getProject().provider(ArrayList::new));
         this.getDocletMetaOptions().convention(this.getProject().provider(() -> () -> this.getProject().file("build").toPath().resolve(this.getName()).resolve("metaOptions.txt").toFile()));
-        this.getOutputs().upToDateWhen(t -> false);
+        this.usesService(ModGradleBuildService.get(this.getProject()));
     }
 
     @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
     public abstract Property<FileCollection> getSources();
 
     @Input
@@ -63,16 +61,11 @@ public abstract class JavadocConfigureTask extends DefaultTask {
 
     public FileCollection getDirs(Path base) {
         try {
-            Set<String> packages = JavaHelper.findPackages(List.of(base));
-            PackageMatcher matcher = new PackageMatcher(this.getExcludes().get(), this.getIncludes().get());
-            return this.getProject().files(packages.stream()
-                    .filter(matcher.getMatcher().negate())
-                    .map(pkg -> pkg.replace('.', '/'))
-                    .map(base::resolve)
-                    .map(path -> path.toAbsolutePath().normalize())
-                    .filter(Files::isDirectory)
-                    .flatMap(JavadocConfigureTask::listDir)
-                    .filter(Files::isRegularFile)
+            PackageIndex index = PackageIndex.get(this.getProject(), base);
+            Predicate<String> matcher = new PackageMatcher(this.getExcludes().get(), this.getIncludes().get()).getMatcher();
+            return this.getProject().files(index.packages().stream()
+                    .filter(matcher.negate())
+                    .flatMap(pkg -> index.files(pkg).stream())
                     .map(Path::toFile).toArray());
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -81,17 +74,9 @@ public abstract class JavadocConfigureTask extends DefaultTask {
     
     public List<String> getExcludedPackages(Path base) {
         try {
-            Set<String> packages = JavaHelper.findPackages(List.of(base));
-            PackageMatcher matcher = new PackageMatcher(this.getExcludes().get(), this.getIncludes().get());
-            return packages.stream().filter(matcher.getMatcher()).toList();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
-    private static Stream<Path> listDir(Path path) {
-        try {
-            return Files.list(path);
+            PackageIndex index = PackageIndex.get(this.getProject(), base);
+            Predicate<String> matcher = new PackageMatcher(this.getExcludes().get(), this.getIncludes().get()).getMatcher();
+            return index.packages().stream().filter(matcher).toList();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -0,0 +1,290 @@
+package org.moddingx.modgradle.plugins.javadoc;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import org.apache.commons.io.file.PathUtils;
+import org.gradle.api.Project;
+import org.moddingx.modgradle.ModGradle;
+import org.moddingx.modgradle.ModGradleBuildService;
+import org.moddingx.modgradle.util.cache.CacheUtil;
+import org.moddingx.modgradle.util.cache.HttpCache;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Stores the link lists ({@code package-list}, {@code element-list} and {@code module-list}) of remote javadoc
+ * jars in the gradle user home. Remote jars are revalidated with conditional requests. If the server supports
+ * range requests, only the central directory and the needed entries are fetched instead of the whole jar.
+ */
+public class JavadocLinkStore {
+
+    // Enough to hold the end of central directory record with a maximum length comment
+    private static final int TAIL_SIZE = 22 + 0xFFFF;
+
+    private final Path base;
+    private final HttpCache fallback;
+    private final boolean offline;
+    private final HttpClient client;
+
+    public JavadocLinkStore(Project project) {
+        this.base = CacheUtil.cachePath(project, "javadoc_links");
+        this.fallback = ModGradleBuildService.get(project).get().httpCache("javadoc");
+        this.offline = project.getGradle().getStartParameter().isOffline();
+        this.client = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    /**
+     * Gets a directory that contains the link lists of the given javadoc jar. The directory is never modified,
+     * updated link lists are stored in a new directory.
+     */
+    public Path get(URL jar) throws IOException {
+        String key = Hashing.sha256().hashString(jar.toString(), StandardCharsets.UTF_8).toString();
+        Path entryDir = this.base.resolve(key);
+        Path metaPath = entryDir.resolve("meta.json");
+        return CacheUtil.locked(metaPath, () -> {
+            Entry entry = readEntry(metaPath);
+            Path dir = entry == null ? null : entryDir.resolve(entry.files());
+            if (dir != null && !Files.isDirectory(dir)) {
+                entry = null;
+                dir = null;
+            }
+            if (entry == null || !this.offline) {
+                String protocol = jar.getProtocol().toLowerCase(Locale.ROOT);
+                try {
+                    if (protocol.equals("http") || protocol.equals("https")) {
+                        dir = this.revalidate(jar, entryDir, metaPath, entry, dir);
+                    } else {
+                        dir = this.extractFull(jar, entryDir);
+                        writeEntry(metaPath, new Entry(null, null, dir.getFileName().toString()));
+                    }
+                } catch (IOException e) {
+                    if (entry == null) throw e;
+                    System.err.println("Failed to revalidate javadoc links from " + jar + ", using cached version: " + e.getMessage());
+                }
+            }
+            CacheUtil.markUsed(dir);
+            CacheUtil.markUsed(metaPath);
+            return dir;
+        });
+    }
+
+    private Path revalidate(URL jar, Path entryDir, Path metaPath, @Nullable Entry entry, @Nullable Path current) throws IOException {
+        HttpRequest.Builder head = request(jar).method("HEAD", HttpRequest.BodyPublishers.noBody());
+        if (entry != null && entry.etag() != null) head.header("If-None-Match", entry.etag());
+        if (entry != null && entry.lastModified() != null) head.header("If-Modified-Since", entry.lastModified());
+        HttpResponse<Void> response = this.send(head.build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 304 && current != null) return current;
+        if (response.statusCode() / 100 != 2) throw new IOException("HTTP Status Code " + response.statusCode() + ": " + jar);
+
+        long length = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+        boolean ranges = response.headers().allValues("Accept-Ranges").stream().anyMatch(value -> value.toLowerCase(Locale.ROOT).contains("bytes"));
+
+        Map<String, byte[]> files = null;
+        if (ranges && length > 0) {
+            try {
+                files = this.readRemote(jar, length);
+            } catch (IOException e) {
+                // Not a zip we can read partially, fall back to downloading the whole jar.
+                files = null;
+            }
+        }
+        Path dir = files != null ? this.write(entryDir, files) : this.extractFull(jar, entryDir);
+        writeEntry(metaPath, new Entry(
+                response.headers().firstValue("ETag").orElse(null),
+                response.headers().firstValue("Last-Modified").orElse(null),
+                dir.getFileName().toString()
+        ));
+        return dir;
+    }
+
+    private Map<String, byte[]> readRemote(URL jar, long length) throws IOException {
+        long tailStart = Math.max(0, length - TAIL_SIZE);
+        ByteBuffer tail = this.range(jar, tailStart, length - 1);
+        int eocd = -1;
+        for (int i = tail.limit() - 22; i >= 0; i--) {
+            if (tail.getInt(i) == 0x06054b50) {
+                eocd = i;
+                break;
+            }
+        }
+        if (eocd < 0) throw new IOException("No end of central directory found");
+        long cdSize = Integer.toUnsignedLong(tail.getInt(eocd + 12));
+        long cdOffset = Integer.toUnsignedLong(tail.getInt(eocd + 16));
+        if (cdSize == 0xFFFFFFFFL || cdOffset == 0xFFFFFFFFL) throw new IOException("Zip64 is not supported");
+
+        ByteBuffer cd;
+        if (cdOffset >= tailStart) {
+            cd = tail.slice((int) (cdOffset - tailStart), (int) cdSize).order(ByteOrder.LITTLE_ENDIAN);
+        } else {
+            cd = this.range(jar, cdOffset, cdOffset + cdSize - 1);
+        }
+
+        Map<String, byte[]> files = new HashMap<>();
+        int pos = 0;
+        while (pos + 46 <= cd.limit() && cd.getInt(pos) == 0x02014b50) {
+            int method = Short.toUnsignedInt(cd.getShort(pos + 10));
+            long compressedSize = Integer.toUnsignedLong(cd.getInt(pos + 20));
+            long size = Integer.toUnsignedLong(cd.getInt(pos + 24));
+            int nameLen = Short.toUnsignedInt(cd.getShort(pos + 28));
+            int extraLen = Short.toUnsignedInt(cd.getShort(pos + 30));
+            int commentLen = Short.toUnsignedInt(cd.getShort(pos + 32));
+            long offset = Integer.toUnsignedLong(cd.getInt(pos + 42));
+            byte[] nameBytes = new byte[nameLen];
+            cd.get(pos + 46, nameBytes);
+            String name = new String(nameBytes, StandardCharsets.UTF_8);
+            if (name.startsWith("/")) name = name.substring(1);
+            if (JavadocLinksTask.FILES_TO_COPY.contains(name)) {
+                files.put(name, this.fetchEntry(jar, offset, method, compressedSize, size, nameLen, length));
+            }
+            pos += 46 + nameLen + extraLen + commentLen;
+        }
+        return files;
+    }
+
+    private byte[] fetchEntry(URL jar, long offset, int method, long compressedSize, long size, int nameLen, long length) throws IOException {
+        if (method != ZipEntry.STORED && method != ZipEntry.DEFLATED) throw new IOException("Unsupported compression method: " + method);
+        // The extra field of the local header may differ from the central directory, fetch some more
+        long end = Math.min(length - 1, offset + 30 + nameLen + compressedSize + 1024);
+        ByteBuffer local = this.range(jar, offset, end);
+        if (local.getInt(0) != 0x04034b50) throw new IOException("Invalid local file header");
+        int dataStart = 30 + Short.toUnsignedInt(local.getShort(26)) + Short.toUnsignedInt(local.getShort(28));
+        if (dataStart + compressedSize > local.limit()) throw new IOException("Local file header too large");
+        byte[] compressed = new byte[(int) compressedSize];
+        local.get(dataStart, compressed);
+        if (method == ZipEntry.STORED) return compressed;
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            byte[] data = new byte[(int) size];
+            int read = 0;
+            while (read < data.length && !inflater.finished()) {
+                int n = inflater.inflate(data, read, data.length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                read += n;
+            }
+            if (read != data.length) throw new IOException("Truncated zip entry");
+            return data;
+        } catch (DataFormatException e) {
+            throw new IOException("Invalid zip entry", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private ByteBuffer range(URL jar, long from, long to) throws IOException {
+        HttpRequest request = request(jar).GET().header("Range", "bytes=" + from + "-" + to).build();
+        HttpResponse<byte[]> response = this.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 206) throw new IOException("Range request not honoured: HTTP Status Code " + response.statusCode());
+        return ByteBuffer.wrap(response.body()).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private Path extractFull(URL jar, Path entryDir) throws IOException {
+        Path file = this.fallback.get(jar);
+        Map<String, byte[]> files = new HashMap<>();
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            for (String name : JavadocLinksTask.FILES_TO_COPY) {
+                ZipEntry entry = zip.getEntry(name);
+                if (entry == null) entry = zip.getEntry("/" + name);
+                if (entry != null) {
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        files.put(name, in.readAllBytes());
+                    }
+                }
+            }
+        }
+        return this.write(entryDir, files);
+    }
+
+    // Link lists are stored in a directory named by their content. Published directories are never modified,
+    // as javadoc tasks of other builds might read them at the same time. The directory is written under a
+    // temporary name and then moved in place.
+    private Path write(Path entryDir, Map<String, byte[]> files) throws IOException {
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (String name : files.keySet().stream().sorted().toList()) {
+            hasher.putString(name, StandardCharsets.UTF_8);
+            hasher.putInt(files.get(name).length);
+            hasher.putBytes(files.get(name));
+        }
+        Path dir = entryDir.resolve(hasher.hash().toString().substring(0, 16));
+        if (Files.isDirectory(dir)) return dir;
+        Files.createDirectories(entryDir);
+        Path temp = Files.createTempDirectory(entryDir, "tmp");
+        try {
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                Files.write(temp.resolve(file.getKey()), file.getValue());
+            }
+            CacheUtil.move(temp, dir);
+        } finally {
+            if (Files.exists(temp)) PathUtils.deleteDirectory(temp);
+        }
+        return dir;
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return this.client.send(request, handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+    }
+
+    private static HttpRequest.Builder request(URL url) throws IOException {
+        try {
+            return HttpRequest.newBuilder(url.toURI()).header("User-Agent", "ModGradle");
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid url: " + url, e);
+        }
+    }
+
+    @Nullable
+    private static Entry readEntry(Path metaPath) {
+        if (!Files.isRegularFile(metaPath)) return null;
+        try {
+            JsonObject json = ModGradle.INTERNAL.fromJson(Files.readString(metaPath, StandardCharsets.UTF_8), JsonObject.class);
+            return new Entry(
+                    json.has("etag") ? json.get("etag").getAsString() : null,
+                    json.has("lastModified") ? json.get("lastModified").getAsString() : null,
+                    json.get("files").getAsString()
+            );
+        } catch (IOException | JsonParseException | NullPointerException | IllegalStateException e) {
+            return null;
+        }
+    }
+
+    private static void writeEntry(Path metaPath, Entry entry) throws IOException {
+        JsonObject json = new JsonObject();
+        if (entry.etag() != null) json.addProperty("etag", entry.etag());
+        if (entry.lastModified() != null) json.addProperty("lastModified", entry.lastModified());
+        json.addProperty("files", entry.files());
+        byte[] data = (ModGradle.INTERNAL.toJson(json) + "\n").getBytes(StandardCharsets.UTF_8);
+        CacheUtil.publish(metaPath, out -> out.write(data));
+    }
+
+    private record Entry(@Nullable String etag, @Nullable String lastModified, String files) {}
+}
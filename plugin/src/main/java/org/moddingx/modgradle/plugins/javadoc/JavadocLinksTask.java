@@ -1,11 +1,11 @@
 package org.moddingx.modgradle.plugins.javadoc;
 
-import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import net.minecraftforge.gradle.mcp.MCPExtension;
 import net.minecraftforge.gradle.userdev.UserDevExtension;
 import org.apache.commons.io.file.PathUtils;
+import org.apache.commons.io.function.IOSupplier;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
@@ -15,17 +15,22 @@ import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.javadoc.Javadoc;
 import org.gradle.work.InputChanges;
 import org.moddingx.modgradle.ModGradle;
-import org.moddingx.modgradle.util.io.IOUtil;
+import org.moddingx.modgradle.ModGradleBuildService;
 import org.moddingx.modgradle.util.McEnv;
 import org.moddingx.modgradle.util.StringUtil;
+import org.moddingx.modgradle.util.io.IOUtil;
 
 import javax.inject.Inject;
-import java.io.*;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
 import java.net.MalformedURLException;
-import java.net.URI;
 import java.net.URL;
-import java.nio.file.FileSystem;
-import java.nio.file.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
 
 public abstract class JavadocLinksTask extends DefaultTask {
@@ -64,6 +69,7 @@ public abstract class JavadocLinksTask extends DefaultTask {
         this.getIncludeForge().convention(this.getProject().provider(() -> this.getProject().getExtensions().findByType(UserDevExtension.class) != null));
         this.getOutput().convention(this.getProject().provider(() -> () -> basePath.resolve("options.txt").toFile()));
         this.getOutputs().dir(basePath.toFile());
+        this.usesService(ModGradleBuildService.get(this.getProject()));
     }
 
     @Input
@@ -83,63 +89,52 @@ public abstract class JavadocLinksTask extends DefaultTask {
 
     @TaskAction
     protected void generateJavadocLinks(InputChanges inputs) throws IOException {
-        Path libPath = this.getProject().file("build").toPath().resolve(this.getName()).resolve("libs");
-        if (!Files.isDirectory(libPath)) {
-            Files.createDirectories(libPath);
-        }
         if (this.baseTask.getOptions().getDoclet() != null) {
             // Custom doclet, don't add options
             Writer writer = Files.newBufferedWriter(this.getOutput().getAsFile().get().toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
             writer.write("\n");
             writer.close();
         } else {
-            Reader reader = new BufferedReader(new InputStreamReader(this.getConfig().get().openStream()));
-            JsonObject cfg = ModGradle.INTERNAL.fromJson(reader, JsonObject.class);
-            reader.close();
-            Path output = this.getOutput().getAsFile().get().toPath();
-            PathUtils.createParentDirectories(output);
-            Writer writer = Files.newBufferedWriter(output, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            Path configFile = ModGradleBuildService.get(this.getProject()).get().httpCache("javadoc").get(this.getConfig().get());
+            JsonObject cfg;
+            try (Reader reader = Files.newBufferedReader(configFile, StandardCharsets.UTF_8)) {
+                cfg = ModGradle.INTERNAL.fromJson(reader, JsonObject.class);
+            }
+            
+            List<JsonElement> entries = new ArrayList<>();
             if (cfg.has("minecraft") && this.getIncludeMinecraft().get()) {
-                this.addSet(libPath, writer, cfg.getAsJsonArray("minecraft"));
+                cfg.getAsJsonArray("minecraft").forEach(entries::add);
             }
             if (cfg.has("mcp") && this.getIncludeMcp().get()) {
-                this.addSet(libPath, writer, cfg.getAsJsonArray("mcp"));
+                cfg.getAsJsonArray("mcp").forEach(entries::add);
             }
             if (cfg.has("forge") && this.getIncludeForge().get()) {
-                this.addSet(libPath, writer, cfg.getAsJsonArray("forge"));
+                cfg.getAsJsonArray("forge").forEach(entries::add);
+            }
+            
+            // Fetch all link lists concurrently, but write the options in order
+            JavadocLinkStore store = new JavadocLinkStore(this.getProject());
+            List<String> options = IOUtil.parallel(entries.stream().<IOSupplier<String>>map(entry -> () -> this.linkOption(store, entry.getAsJsonObject())).toList());
+            
+            Path output = this.getOutput().getAsFile().get().toPath();
+            PathUtils.createParentDirectories(output);
+            try (Writer writer = Files.newBufferedWriter(output, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (String option : options) {
+                    writer.write(option);
+                }
+                writer.write("\n");
             }
-            writer.write("\n");
-            writer.close();
         }
     }
 
-    private void addSet(Path libPath, Writer writer, JsonArray elems) throws IOException {
-        for (JsonElement entry : elems) {
-            JsonObject json = entry.getAsJsonObject();
-            URL doc = new URL(json.get("url").getAsString());
-            URL res = json.has("res") ? new URL(json.get("res").getAsString()) : null;
-            if (res == null) {
-                writer.write(" -link " + StringUtil.quote(doc.toString()));
-            } else {
-                Path targetPath = libPath.resolve(res.toString().replace('/', '_').replace(':', '_'));
-                if (Files.exists(targetPath)) {
-                    PathUtils.deleteDirectory(targetPath);
-                }
-                Files.createDirectories(targetPath);
-                Path tempFile = Files.createTempFile("javadoc_links", ".jar");
-                Files.copy(res.openStream(), tempFile, StandardCopyOption.REPLACE_EXISTING);
-                try (FileSystem fs = IOUtil.getFileSystem(URI.create("jar:" + tempFile.toUri()))) {
-                    for (String fname : FILES_TO_COPY) {
-                        Path fpath = fs.getPath(fname);
-                        if (Files.exists(fpath)) {
-                            Files.copy(fpath, targetPath.resolve(fname), StandardCopyOption.REPLACE_EXISTING);
-                        }
-                    }
-                } finally {
-                    Files.deleteIfExists(tempFile);
-                }
-                writer.write(" -linkoffline " + StringUtil.quote(doc.toString()) + " " + StringUtil.quote(targetPath.toAbsolutePath().normalize().toUri().toString()));
-            }
+    private String linkOption(JavadocLinkStore store, JsonObject json) throws IOException {
+        URL doc = new URL(json.get("url").getAsString());
+        URL res = json.has("res") ? new URL(json.get("res").getAsString()) : null;
+        if (res == null) {
+            return " -link " + StringUtil.quote(doc.toString());
+        } else {
+            Path targetPath = store.get(res);
+            return " -linkoffline " + StringUtil.quote(doc.toString()) + " " + StringUtil.quote(targetPath.toAbsolutePath().normalize().toUri().toString());
         }
     }
 }
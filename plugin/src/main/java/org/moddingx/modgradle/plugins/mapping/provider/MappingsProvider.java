@@ -2,8 +2,8 @@ package org.moddingx.modgradle.plugins.mapping.provider;
 
 import net.minecraftforge.gradle.mcp.ChannelProvider;
 import net.minecraftforge.gradle.mcp.MCPRepo;
-import org.apache.commons.io.file.PathUtils;
 import org.gradle.api.Project;
+import org.moddingx.modgradle.util.cache.CacheUtil;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -12,7 +12,6 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 
 public abstract class MappingsProvider implements ChannelProvider {
 
@@ -25,13 +24,18 @@ public abstract class MappingsProvider implements ChannelProvider {
     public File getMappingsFile(@Nonnull MCPRepo mcpRepo, @Nonnull Project project, @Nonnull String channel, @Nonnull String version) throws IOException {
         String hash = Long.toHexString(this.hash(project, channel, version));
         Path path = getCacheFile(project, channel, version, hash, "zip");
-        if (!Files.exists(path) || Files.size(path) <= 0) {
-            PathUtils.createParentDirectories(path);
-            OutputStream out = Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-            this.generate(out, project, channel, version);
-            out.close();
+        if (isCached(path)) {
+            CacheUtil.markUsed(path.getParent());
+            return path.toFile();
         }
-        return path.toFile();
+        // The cache is shared between projects and builds, so another process
+        // might generate the same mappings at the same time.
+        return CacheUtil.locked(getLockPath(path.getParent()), () -> {
+            if (!isCached(path)) {
+                CacheUtil.publish(path, out -> this.generate(out, project, channel, version));
+            }
+            return path.toFile();
+        });
     }
     
     protected long hash(Project project, String channel, String version) {
@@ -40,9 +44,22 @@ public abstract class MappingsProvider implements ChannelProvider {
     
     protected abstract void generate(OutputStream out, Project project, String channel, String version) throws IOException;
     
+    private static boolean isCached(Path path) throws IOException {
+        return Files.isRegularFile(path) && Files.size(path) > 0;
+    }
+    
     public static Path getBasePath(Project project, String channel) {
-        return project.file("build").toPath().resolve("modgradle_mappings").resolve("v" + SYSTEM_VERSION)
-                .resolve(channel.replace('/', '_'));
+        return CacheUtil.cachePath(project, "mappings", "v" + SYSTEM_VERSION, channel);
+    }
+    
+    /**
+     * Gets the path to {@link CacheUtil#locked(Path, org.apache.commons.io.function.IOSupplier) lock} while
+     * generating the mappings of the given cache entry. The entry is the directory that contains the mappings file.
+     * SugarCane mappings are generated by librarian, which chooses the entry itself. So they are locked per channel.
+     */
+    public static Path getLockPath(Path entry) {
+        Path channelDir = entry.getParent().getParent();
+        return channelDir.getFileName().toString().equals("sugarcane") ? channelDir : entry;
     }
     
     public static Path getCacheFile(Project project, String channel, String version, String hash, String ext) {
@@ -1,8 +1,11 @@
 package org.moddingx.modgradle.plugins.mapping.provider;
 
+import com.google.common.util.concurrent.Striped;
 import net.minecraftforge.gradle.common.util.MavenArtifactDownloader;
 import net.minecraftforge.gradle.mcp.MCPRepo;
 import org.gradle.api.Project;
+import org.moddingx.modgradle.ModGradleBuildService;
+import org.moddingx.modgradle.util.cache.CacheUtil;
 import org.parchmentmc.feather.mapping.VersionedMappingDataContainer;
 import org.parchmentmc.librarian.forgegradle.ParchmentChannelProvider;
 import org.parchmentmc.librarian.forgegradle.ParchmentMappingVersion;
@@ -15,13 +18,16 @@ import java.io.InputStreamReader;
 import java.nio.file.Path;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 public class SugarcaneProvider extends ParchmentChannelProvider {
 
     public static final SugarcaneProvider INSTANCE = new SugarcaneProvider();
-    private static boolean printedWarning = false;
+    
+    // Only resolutions of the same dependency need to wait for each other
+    private final Striped<Lock> dependencyLocks = Striped.lock(16);
     
     private SugarcaneProvider() {
         
@@ -38,15 +44,17 @@ public class SugarcaneProvider extends ParchmentChannelProvider {
     public File getMappingsFile(MCPRepo mcpRepo, Project project, String channel, String mappingVersion) throws IOException {
         ParchmentMappingVersion version = ParchmentMappingVersion.of(mappingVersion);
         if (!Objects.equals(version.mcpVersion(), version.queryMcVersion())) {
-            synchronized (this) {
-                if (!printedWarning) {
-                    printedWarning = true;
-                    System.err.println("Using SugarCane for " + version.queryMcVersion() + " on minecraft " + version.mcpVersion() + ". Recompilation errors or subtle bugs may arise.");
-                    System.err.println("In that case, consider switching to plain parchment until SugarCane is available for minecraft " + version.mcVersion() + ".");
-                }
+            if (ModGradleBuildService.get(project).get().firstWarning("sugarcane")) {
+                System.err.println("Using SugarCane for " + version.queryMcVersion() + " on minecraft " + version.mcpVersion() + ". Recompilation errors or subtle bugs may arise.");
+                System.err.println("In that case, consider switching to plain parchment until SugarCane is available for minecraft " + version.mcVersion() + ".");
             }
         }
-        return super.getMappingsFile(mcpRepo, project, channel, mappingVersion);
+        // The cache is shared between projects and builds. Generation is done by librarian, which
+        // chooses the cache entry, so lock the whole channel.
+        Path channelDir = MappingsProvider.getBasePath(project, "sugarcane");
+        File file = CacheUtil.locked(channelDir, () -> super.getMappingsFile(mcpRepo, project, channel, mappingVersion));
+        if (file != null) CacheUtil.markUsed(file.toPath().getParent());
+        return file;
     }
 
     @Nonnull
@@ -68,9 +76,15 @@ public class SugarcaneProvider extends ParchmentChannelProvider {
     }
 
     @Override
-    protected synchronized File getDependency(Project project, String dependencyNotation) {
-        // We don't need snapshot handling as SugarCane will only build on releases
-        return MavenArtifactDownloader.generate(project, dependencyNotation, false);
+    protected File getDependency(Project project, String dependencyNotation) {
+        Lock lock = this.dependencyLocks.get(dependencyNotation);
+        lock.lock();
+        try {
+            // We don't need snapshot handling as SugarCane will only build on releases
+            return MavenArtifactDownloader.generate(project, dependencyNotation, false);
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
@@ -1,6 +1,7 @@
 package org.moddingx.modgradle.plugins.mapping.provider;
 
 import org.gradle.api.Project;
+import org.moddingx.modgradle.ModGradleBuildService;
 import org.moddingx.modgradle.mappings.MappingIO;
 
 import javax.annotation.Nonnull;
@@ -26,7 +27,8 @@ public class UnofficialProvider extends MappingsProvider {
     @Override
     protected void generate(OutputStream out, Project project, String channel, String version) throws IOException {
         URL url = new URL("https://noeppi-noeppi.github.io/MappingUtilities/mcp_unofficial/" + version + ".zip");
-        MappingIO.NameMappings names = MappingIO.readNames(url.openStream(), true);
+        ModGradleBuildService service = ModGradleBuildService.get(project).get();
+        MappingIO.NameMappings names = MappingIO.readNames(service.httpCache("mappings").get(url), true, service);
         MappingIO.writeNames(out, names.names(), names.docs());
     }
 }
@@ -1,7 +1,6 @@
 package org.moddingx.modgradle.plugins.mcupdate;
 
 import net.minecraftforge.gradle.common.tasks.ApplyRangeMap;
-import net.minecraftforge.gradle.common.tasks.ExtractRangeMap;
 import org.apache.commons.io.file.PathUtils;
 import org.gradle.api.*;
 import org.gradle.api.file.Directory;
@@ -16,6 +15,7 @@ import org.moddingx.modgradle.api.task.MergeMappingsTask;
 import org.moddingx.modgradle.plugins.mcupdate.task.*;
 import org.moddingx.modgradle.util.java.JavaEnv;
 import org.moddingx.modgradle.util.MgUtil;
+import org.moddingx.modgradle.util.task.CachedExtractRangeMap;
 import org.moddingx.modgradle.util.task.ExtractInheritanceTask;
 
 import javax.annotation.Nonnull;
@@ -142,7 +142,7 @@ public class McUpdatePlugin implements Plugin<Project> {
                 nextDependencyTask = stageLocalTask;
             }
 
-            ExtractRangeMap rangeTask = project.getTasks().create("mcupdate_extractRange", ExtractRangeMap.class);
+            CachedExtractRangeMap rangeTask = project.getTasks().create("mcupdate_extractRange", CachedExtractRangeMap.class);
             rangeTask.getSources().from(JavaEnv.getJavaSourceDirs(project));
             rangeTask.getDependencies().from(compileTask.getClasspath());
             rangeTask.dependsOn(nextDependencyTask);
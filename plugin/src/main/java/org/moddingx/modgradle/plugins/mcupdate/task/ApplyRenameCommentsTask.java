@@ -3,13 +3,13 @@ package org.moddingx.modgradle.plugins.mcupdate.task;
 import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.tasks.InputDirectory;
 import org.moddingx.modgradle.ModGradle;
-import org.moddingx.modgradle.api.task.ClasspathExec;
 import org.moddingx.modgradle.util.ArgumentUtil;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 
-public abstract class ApplyRenameCommentsTask extends ClasspathExec {
+public abstract class ApplyRenameCommentsTask extends ShardedSourceExec {
     
     public ApplyRenameCommentsTask() {
         this.getTool().set(ModGradle.SOURCE_TRANSFORM);
@@ -21,9 +21,14 @@ public abstract class ApplyRenameCommentsTask extends ClasspathExec {
     public abstract DirectoryProperty getSources();
 
     @Override
-    protected List<String> processArgs(List<String> args) {
+    protected List<Path> getSourceRoots() {
+        return List.of(this.getSources().get().getAsFile().toPath());
+    }
+
+    @Override
+    protected List<String> processArgs(List<String> args, List<Path> sourceRoots) {
         return ArgumentUtil.replaceArgs(args, Map.of(
-                "sources", List.of(this.getSources().get())
+                "sources", sourceRoots
         ));
     }
 }
@@ -1,40 +1,61 @@
 package org.moddingx.modgradle.plugins.mcupdate.task;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import net.minecraftforge.srgutils.IMappingBuilder;
 import net.minecraftforge.srgutils.IMappingFile;
 import org.apache.commons.io.file.PathUtils;
+import org.apache.commons.io.function.IOSupplier;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Input;
-import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.work.InputChanges;
 import org.moddingx.launcherlib.mappings.MappingHelper;
+import org.moddingx.modgradle.ModGradleBuildService;
+import org.moddingx.modgradle.util.cache.HttpCache;
+import org.moddingx.modgradle.util.io.IOUtil;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
 
 public abstract class BuildBaseMappingsTask extends DefaultTask {
 
     public BuildBaseMappingsTask() {
         this.getAdditionalMappings().convention(this.getProject().provider(ArrayList::new));
         this.getMappingOutput().convention(this.getProject().provider(() -> () -> this.getProject().file("build").toPath().resolve(this.getName()).resolve("mappings.tsrg").toFile()));
+        this.usesService(ModGradleBuildService.get(this.getProject()));
     }
 
-    @Input
-    @Optional
+    // Mapping files resolved from the download cache. Resolved once, when gradle first queries the content hash.
+    @Nullable
+    private ResolvedMappings resolved = null;
+
+    @Internal
     public abstract Property<URL> getMainMappings();
 
-    @Input
-    @Optional
+    @Internal
     public abstract ListProperty<URL> getAdditionalMappings();
 
+    /**
+     * A hash of the content of all mapping files. The files are downloaded (or revalidated in the cache)
+     * when this is first queried. So the task is up-to-date as long as the remote files don't change.
+     */
+    @Input
+    public String getContentHash() {
+        return this.resolve().hash();
+    }
+
     @OutputFile
     public abstract RegularFileProperty getMappingOutput();
 
@@ -43,12 +64,20 @@ public abstract class BuildBaseMappingsTask extends DefaultTask {
         Path path = this.getMappingOutput().get().getAsFile().toPath();
         PathUtils.createParentDirectories(path);
 
-        IMappingFile main = this.getMainMappings().map(this::loadMappings).getOrNull();
+        ResolvedMappings resolved = this.resolve();
+        // The main mappings are first, followed by the additional mappings
+        List<IOSupplier<IMappingFile>> loaders = new ArrayList<>();
+        loaders.add(() -> resolved.main() == null ? null : IMappingFile.load(resolved.main().toFile()));
+        resolved.additional().forEach(file -> loaders.add(() -> IMappingFile.load(file.toFile())));
+        List<IMappingFile> loaded = IOUtil.parallel(loaders);
+        
+        IMappingFile main = loaded.get(0);
         if (main == null) main = IMappingBuilder.create("from", "to").build().getMap("from", "to");
 
         IMappingFile builtMappings = main;
-        if (!this.getAdditionalMappings().get().isEmpty()) {
-            IMappingFile mergedAdditional = MappingHelper.merge(this.getAdditionalMappings().get().stream().map(this::loadMappings).toList());
+        if (loaded.size() > 1) {
+            List<IMappingFile> additional = loaded.subList(1, loaded.size());
+            IMappingFile mergedAdditional = MappingHelper.merge(additional);
             
             // Do combination of chain and merge
             IMappingFile chainedMain = main.chain(mergedAdditional);
@@ -58,11 +87,42 @@ public abstract class BuildBaseMappingsTask extends DefaultTask {
         builtMappings.write(path, IMappingFile.Format.TSRG2, false);
     }
 
-    private IMappingFile loadMappings(URL url) {
-        try (InputStream in = url.openStream()) {
-            return IMappingFile.load(in);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to load mappings from " + url, e);
+    private synchronized ResolvedMappings resolve() {
+        if (this.resolved == null) {
+            HttpCache cache = ModGradleBuildService.get(this.getProject()).get().httpCache("mcupdate");
+            URL mainUrl = this.getMainMappings().getOrNull();
+            // Fetch all files concurrently, each one is revalidated with a conditional request
+            List<IOSupplier<Path>> downloads = new ArrayList<>();
+            downloads.add(() -> mainUrl == null ? null : download(cache, mainUrl));
+            this.getAdditionalMappings().get().forEach(url -> downloads.add(() -> download(cache, url)));
+            try {
+                List<Path> files = IOUtil.parallel(downloads);
+                Hasher hasher = Hashing.sha256().newHasher();
+                Path main = files.get(0);
+                hasher.putString(main == null ? "none" : hash(main), StandardCharsets.UTF_8);
+                List<Path> additional = files.subList(1, files.size());
+                for (Path file : additional) {
+                    hasher.putString(";" + hash(file), StandardCharsets.UTF_8);
+                }
+                this.resolved = new ResolvedMappings(main, List.copyOf(additional), hasher.hash().toString());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
+        return this.resolved;
     }
+
+    private static Path download(HttpCache cache, URL url) throws IOException {
+        try {
+            return cache.get(url);
+        } catch (IOException e) {
+            throw new IOException("Failed to load mappings from " + url, e);
+        }
+    }
+
+    private static String hash(Path path) throws IOException {
+        return com.google.common.io.Files.asByteSource(path.toFile()).hash(Hashing.sha256()).toString();
+    }
+
+    private record ResolvedMappings(@Nullable Path main, List<Path> additional, String hash) {}
 }
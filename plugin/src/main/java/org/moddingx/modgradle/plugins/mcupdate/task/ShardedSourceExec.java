@@ -0,0 +1,156 @@
+package org.moddingx.modgradle.plugins.mcupdate.task;
+
+import org.apache.commons.io.file.PathUtils;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.InputChanges;
+import org.moddingx.modgradle.api.task.ClasspathExec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A {@link ClasspathExec} that rewrites java source files in place. The source files can be split into
+ * shards that are processed in parallel. Each shard is copied into the build directory, processed by its
+ * own tool invocation and then copied back.
+ *
+ * Sharding is only correct if the tool processes every file on its own. Each invocation only sees the files
+ * of its shard, so the tool must not resolve anything across source files. Tools must also not create or
+ * delete files, the task fails if the files of a shard change.
+ */
+public abstract class ShardedSourceExec extends ClasspathExec {
+
+    // Shards smaller than this are not worth the overhead of an extra tool invocation
+    private static final int MIN_FILES_PER_SHARD = 64;
+    // Every file costs some time, even if small. Added to the file size when balancing shards.
+    private static final long FILE_WEIGHT = 4096;
+
+    public ShardedSourceExec() {
+        this.getShards().convention(1);
+    }
+
+    /**
+     * The maximum amount of shards to split the sources into. Default is 1 which processes all sources in a
+     * single invocation. Shards run in gradle worker processes, so this has no effect unless
+     * {@link #getUseWorker() useWorker} is enabled.
+     */
+    @Internal
+    public abstract Property<Integer> getShards();
+
+    protected abstract List<Path> getSourceRoots();
+
+    protected abstract List<String> processArgs(List<String> args, List<Path> sourceRoots);
+
+    @Override
+    protected List<String> processArgs(List<String> args) {
+        return this.processArgs(args, this.getSourceRoots());
+    }
+
+    @Override
+    @TaskAction
+    public void exec(InputChanges inputs) throws IOException {
+        // Only walk the sources if sharding is enabled
+        if (this.getShards().get() <= 1 || !this.getUseWorker().get()) {
+            super.exec(inputs);
+            return;
+        }
+        
+        List<Path> roots = this.getSourceRoots().stream().map(path -> path.toAbsolutePath().normalize()).toList();
+        List<SourceFile> files = new ArrayList<>();
+        for (int i = 0; i < roots.size(); i++) {
+            Path root = roots.get(i);
+            if (!Files.isDirectory(root)) continue;
+            try (Stream<Path> paths = Files.walk(root)) {
+                for (Path path : paths.filter(Files::isRegularFile).filter(p -> p.getFileName().toString().endsWith(".java")).toList()) {
+                    files.add(new SourceFile(i, root.relativize(path), Files.size(path) + FILE_WEIGHT));
+                }
+            }
+        }
+        
+        int shardCount = Math.min(this.getShards().get(), files.size() / MIN_FILES_PER_SHARD);
+        if (shardCount <= 1) {
+            super.exec(inputs);
+            return;
+        }
+        
+        List<List<SourceFile>> shards = partition(files, shardCount);
+        Path shardBase = this.getProject().file("build").toPath().resolve(this.getName()).resolve("shards").toAbsolutePath().normalize();
+        if (Files.exists(shardBase)) PathUtils.deleteDirectory(shardBase);
+        
+        List<List<String>> invocations = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            Path shardDir = shardBase.resolve(Integer.toString(i));
+            List<Path> shardRoots = new ArrayList<>();
+            for (int r = 0; r < roots.size(); r++) {
+                Path shardRoot = shardDir.resolve(Integer.toString(r));
+                Files.createDirectories(shardRoot);
+                shardRoots.add(shardRoot);
+            }
+            for (SourceFile file : shards.get(i)) {
+                Path target = shardRoots.get(file.root()).resolve(file.path());
+                PathUtils.createParentDirectories(target);
+                Files.copy(roots.get(file.root()).resolve(file.path()), target);
+            }
+            invocations.add(this.processArgs(this.getArgs().get(), shardRoots));
+        }
+        
+        this.execParallel(invocations);
+        
+        // Check all shards before copying anything back, so the sources are left untouched on failure.
+        for (int i = 0; i < shards.size(); i++) {
+            Path shardDir = shardBase.resolve(Integer.toString(i));
+            Set<Path> expected = new HashSet<>();
+            for (SourceFile file : shards.get(i)) {
+                expected.add(shardDir.resolve(Integer.toString(file.root())).resolve(file.path()));
+            }
+            Set<Path> actual;
+            try (Stream<Path> paths = Files.walk(shardDir)) {
+                actual = paths.filter(Files::isRegularFile).collect(Collectors.toSet());
+            }
+            if (!expected.equals(actual)) {
+                throw new IllegalStateException("Tool created or deleted source files in shard " + i + " of " + this.getName() + ", this is not supported with sharding. Set shards to 1.");
+            }
+        }
+        
+        // Every file belongs to exactly one shard, so the order of copying back doesn't matter.
+        // Unchanged files are not touched to keep their modification time.
+        for (int i = 0; i < shards.size(); i++) {
+            Path shardDir = shardBase.resolve(Integer.toString(i));
+            for (SourceFile file : shards.get(i)) {
+                Path processed = shardDir.resolve(Integer.toString(file.root())).resolve(file.path());
+                Path original = roots.get(file.root()).resolve(file.path());
+                if (Files.isRegularFile(processed) && Files.mismatch(processed, original) != -1) {
+                    Files.copy(processed, original, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+        PathUtils.deleteDirectory(shardBase);
+    }
+
+    // Assigns the largest files first, each one to the currently smallest shard
+    private static List<List<SourceFile>> partition(List<SourceFile> files, int shardCount) {
+        List<SourceFile> sorted = files.stream().sorted(Comparator.comparingLong(SourceFile::weight).reversed()
+                .thenComparingInt(SourceFile::root)
+                .thenComparing(file -> file.path().toString())).toList();
+        List<List<SourceFile>> shards = new ArrayList<>();
+        long[] weights = new long[shardCount];
+        for (int i = 0; i < shardCount; i++) shards.add(new ArrayList<>());
+        for (SourceFile file : sorted) {
+            int smallest = 0;
+            for (int i = 1; i < shardCount; i++) {
+                if (weights[i] < weights[smallest]) smallest = i;
+            }
+            shards.get(smallest).add(file);
+            weights[smallest] += file.weight();
+        }
+        return shards;
+    }
+
+    private record SourceFile(int root, Path path, long weight) {}
+}
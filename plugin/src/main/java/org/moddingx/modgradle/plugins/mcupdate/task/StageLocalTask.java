@@ -6,13 +6,15 @@ import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.InputFile;
 import org.gradle.api.tasks.InputFiles;
 import org.moddingx.modgradle.ModGradle;
-import org.moddingx.modgradle.api.task.ClasspathExec;
 import org.moddingx.modgradle.util.ArgumentUtil;
 
+import java.io.File;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
-public abstract class StageLocalTask extends ClasspathExec {
+public abstract class StageLocalTask extends ShardedSourceExec {
     
     public StageLocalTask() {
         this.getTool().set(ModGradle.SOURCE_TRANSFORM);
@@ -27,9 +29,14 @@ public abstract class StageLocalTask extends ClasspathExec {
     public abstract Property<FileCollection> getSources();
 
     @Override
-    protected List<String> processArgs(List<String> args) {
+    protected List<Path> getSourceRoots() {
+        return this.getSources().get().getFiles().stream().map(File::toPath).toList();
+    }
+
+    @Override
+    protected List<String> processArgs(List<String> args, List<Path> sourceRoots) {
         return ArgumentUtil.replaceArgs(args, Map.of(
-                "sources", List.of(this.getSources()),
+                "sources", List.of(sourceRoots.stream().map(ArgumentUtil::toArgString).collect(Collectors.joining(File.pathSeparator))),
                 "rename", List.of(this.getRenameMap())
         ));
     }
@@ -9,6 +9,7 @@ import org.gradle.api.tasks.InputFiles;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.work.InputChanges;
 import org.moddingx.modgradle.ModGradle;
+import org.moddingx.modgradle.ModGradleBuildService;
 import org.moddingx.modgradle.api.Versioning;
 import org.moddingx.modgradle.util.ModFiles;
 import org.moddingx.modgradle.util.java.JavaEnv;
@@ -29,6 +30,7 @@ public abstract class UpdateMetaTask extends DefaultTask {
     public UpdateMetaTask() {
         this.getResources().convention(JavaEnv.getJavaResourceDirs(this.getProject()));
         this.getOutputs().upToDateWhen(t -> false);
+        this.usesService(ModGradleBuildService.get(this.getProject()));
     }
     
     @InputFiles
@@ -50,7 +52,7 @@ public abstract class UpdateMetaTask extends DefaultTask {
             JsonElement json = ModGradle.GSON.fromJson(in, JsonElement.class);
             in.close();
             if (json.isJsonObject() && json.getAsJsonObject().has("pack")) {
-                ModFiles.addPackVersions(json.getAsJsonObject(), minecraft);
+                ModFiles.addPackVersions(ModGradleBuildService.get(this.getProject()).get(), json.getAsJsonObject(), minecraft);
                 Writer out = Files.newBufferedWriter(resourcePackPath, StandardOpenOption.TRUNCATE_EXISTING);
                 ModGradle.GSON.toJson(json, out);
                 out.write("\n");
@@ -62,7 +64,8 @@ public abstract class UpdateMetaTask extends DefaultTask {
     private void processJenkinsfile(String minecraft, Path path) throws IOException {
         Pattern pattern = Pattern.compile("(tools[\\s\n]*\\{[.\\s]*?jdk\\s*['\"]java)\\d+(['\"][.\\s]*?})");
         String file = Files.readString(path, StandardCharsets.UTF_8);
-        String replaced = pattern.matcher(file).replaceAll(r -> r.group(1) + Versioning.getJavaVersion(minecraft) + r.group(2));
+        int java = Versioning.getJavaVersion(ModGradleBuildService.get(this.getProject()).get(), minecraft);
+        String replaced = pattern.matcher(file).replaceAll(r -> r.group(1) + java + r.group(2));
         if (!file.equals(replaced)) {
             Files.writeString(path, replaced, StandardOpenOption.TRUNCATE_EXISTING);
         }
@@ -7,6 +7,7 @@ import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.work.InputChanges;
 import org.moddingx.modgradle.ModGradle;
+import org.moddingx.modgradle.ModGradleBuildService;
 import org.moddingx.modgradle.util.McEnv;
 import org.moddingx.modgradle.util.ModFiles;
 import org.moddingx.modgradle.util.io.CopyHelper;
@@ -36,6 +37,7 @@ public abstract class SetupTask extends DefaultTask {
         }
         this.getRepoBranch().convention("master");
         this.getOutputs().upToDateWhen(t -> false);
+        this.usesService(ModGradleBuildService.get(this.getProject()));
     }
 
     @Input
@@ -93,7 +95,7 @@ public abstract class SetupTask extends DefaultTask {
             try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
                 packJson = ModGradle.GSON.fromJson(reader, JsonObject.class);
             }
-            ModFiles.addPackVersions(packJson, minecraft);
+            ModFiles.addPackVersions(ModGradleBuildService.get(this.getProject()).get(), packJson, minecraft);
             try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.TRUNCATE_EXISTING)) {
                 ModGradle.GSON.toJson(packJson, writer);
             }
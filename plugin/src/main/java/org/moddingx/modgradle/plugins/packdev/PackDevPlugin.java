@@ -19,6 +19,7 @@ import org.gradle.build.event.BuildEventsListenerRegistry;
 import org.gradle.jvm.toolchain.JavaLanguageVersion;
 import org.moddingx.launcherlib.util.Side;
 import org.moddingx.modgradle.ModGradle;
+import org.moddingx.modgradle.ModGradleBuildService;
 import org.moddingx.modgradle.api.Versioning;
 import org.moddingx.modgradle.plugins.packdev.cache.PackDevCache;
 import org.moddingx.modgradle.plugins.packdev.platform.ModFile;
@@ -106,7 +107,7 @@ public abstract class PackDevPlugin implements Plugin<Project> {
 
         // toolchain version must be set outside of afterEvaluate
         // Use the version from modlist.json here, if it differs from the actual version, the build will fail later on anyway.
-        JavaEnv.getJavaExtension(project).get().getToolchain().getLanguageVersion().set(JavaLanguageVersion.of(Versioning.getJavaVersion(modListMcVersion)));
+        JavaEnv.getJavaExtension(project).get().getToolchain().getLanguageVersion().set(JavaLanguageVersion.of(Versioning.getJavaVersion(ModGradleBuildService.get(project).get(), modListMcVersion)));
         
         Configuration clientMods = project.getConfigurations().create("clientMods", c -> {
             c.setCanBeConsumed(false);
@@ -184,7 +185,7 @@ public abstract class PackDevPlugin implements Plugin<Project> {
         ext.getRuns().create(name, run -> {
             run.workingDirectory(workingDir);
             run.property("forge.logging.console.level", "info");
-            if (Versioning.getMixinVersion(mcVersion).isPresent()) {
+            if (Versioning.getMixinVersion(ModGradleBuildService.get(project).get(), mcVersion).isPresent()) {
                 GenerateSRG generateMappings = MgUtil.task(project, "createMcpToSrg", GenerateSRG.class);
                 if (generateMappings != null) {
                     run.property("mixin.env.remapRefMap", "true");
@@ -19,7 +19,7 @@ import java.util.*;
 
 public abstract class BaseModFile implements ModFile {
     
-    private final Project project;
+    protected final Project project;
     private final PackDevCache cache;
 
     protected BaseModFile(Project project, PackDevCache cache) {
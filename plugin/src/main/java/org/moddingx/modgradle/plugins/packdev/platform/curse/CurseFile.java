@@ -43,7 +43,7 @@ public class CurseFile extends BaseModFile {
     public String projectSlug() {
         if (this.slug == null) {
             try {
-                this.slug = CurseUtil.API.getSlug(this.projectId);
+                this.slug = CurseUtil.api(this.project).getSlug(this.projectId);
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
@@ -111,7 +111,7 @@ public class CurseFile extends BaseModFile {
     public ProjectInfo projectInfo() {
         if (this.projectInfo == null) {
             try {
-                this.projectInfo = CurseUtil.API.getProject(this.projectId);
+                this.projectInfo = CurseUtil.api(this.project).getProject(this.projectId);
                 this.slug = this.projectInfo.slug();
             } catch (IOException e) {
                 throw new RuntimeException(e);
@@ -123,7 +123,7 @@ public class CurseFile extends BaseModFile {
     public FileInfo fileInfo() {
         if (this.fileInfo == null) {
             try {
-                this.fileInfo = CurseUtil.API.getFile(this.projectId, this.fileId);
+                this.fileInfo = CurseUtil.api(this.project).getFile(this.projectId, this.fileId);
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
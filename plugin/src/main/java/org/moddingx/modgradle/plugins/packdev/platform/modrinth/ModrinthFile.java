@@ -74,7 +74,7 @@ public class ModrinthFile extends BaseModFile {
     public Optional<Owner> projectOwner() {
         //noinspection OptionalAssignedToNull
         if (this.owner == null) {
-            this.owner = ModrinthAPI.owner(this.projectId);
+            this.owner = ModrinthAPI.owner(this.project, this.projectId);
         }
         return this.owner;
     }
@@ -105,14 +105,14 @@ public class ModrinthFile extends BaseModFile {
 
     public ProjectInfo projectInfo() {
         if (this.projectInfo == null) {
-            this.projectInfo = ModrinthAPI.project(this.projectId);
+            this.projectInfo = ModrinthAPI.project(this.project, this.projectId);
         }
         return this.projectInfo;
     }
 
     public VersionInfo versionInfo() {
         if (this.versionInfo == null) {
-            this.versionInfo = ModrinthAPI.version(this.versionId);
+            this.versionInfo = ModrinthAPI.version(this.project, this.versionId);
         }
         return this.versionInfo;
     }
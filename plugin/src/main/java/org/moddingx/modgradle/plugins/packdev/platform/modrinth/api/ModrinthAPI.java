@@ -5,7 +5,9 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonSyntaxException;
 import org.moddingx.launcherlib.util.Either;
+import org.gradle.api.Project;
 import org.moddingx.modgradle.ModGradle;
+import org.moddingx.modgradle.ModGradleBuildService;
 import org.moddingx.modgradle.plugins.packdev.platform.ModFile;
 import org.moddingx.modgradle.util.hash.ComputedHash;
 
@@ -26,16 +28,15 @@ public class ModrinthAPI {
     
     // Trailing slash is important, so URI#resolve works properly
     private static final URI BASE_URL = URI.create("https://api.modrinth.com/v2/");
-    private static final HttpClient client = HttpClient.newHttpClient();
     
-    public static Map<ComputedHash, VersionInfo> files(Set<ComputedHash> hashes) {
+    public static Map<ComputedHash, VersionInfo> files(Project project, Set<ComputedHash> hashes) {
         try {
             JsonArray array = new JsonArray();
             for (ComputedHash hash : hashes) array.add(hash.hexDigest());
             JsonObject request = new JsonObject();
             request.addProperty("algorithm", "sha512");
             request.add("hashes", array);
-            JsonObject json = request("version_files", Map.of(), request).getAsJsonObject();
+            JsonObject json = request(project, "version_files", Map.of(), request).getAsJsonObject();
             Map<ComputedHash, VersionInfo> map = new HashMap<>();
             for (Map.Entry<String, JsonElement> entry : json.entrySet()) {
                 ComputedHash hash = ComputedHash.of(entry.getKey(), 512);
@@ -47,9 +48,9 @@ public class ModrinthAPI {
         }
     }
     
-    public static ProjectInfo project(String projectId) {
+    public static ProjectInfo project(Project project, String projectId) {
         try {
-            JsonObject json = request("project/" + URLEncoder.encode(projectId, StandardCharsets.UTF_8)).getAsJsonObject();
+            JsonObject json = request(project, "project/" + URLEncoder.encode(projectId, StandardCharsets.UTF_8)).getAsJsonObject();
             return new ProjectInfo(
                     json.get("slug").getAsString(),
                     json.get("project_type").getAsString(),
@@ -60,9 +61,9 @@ public class ModrinthAPI {
         }
     }
     
-    public static VersionInfo version(String versionId) {
+    public static VersionInfo version(Project project, String versionId) {
         try {
-            JsonObject json = request("version/" + URLEncoder.encode(versionId, StandardCharsets.UTF_8)).getAsJsonObject();
+            JsonObject json = request(project, "version/" + URLEncoder.encode(versionId, StandardCharsets.UTF_8)).getAsJsonObject();
             return version(json);
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -97,9 +98,9 @@ public class ModrinthAPI {
         }
     }
     
-    public static Optional<ModFile.Owner> owner(String projectId) {
+    public static Optional<ModFile.Owner> owner(Project project, String projectId) {
         try {
-            JsonArray array = request("project/" + URLEncoder.encode(projectId, StandardCharsets.UTF_8) + "/members").getAsJsonArray();
+            JsonArray array = request(project, "project/" + URLEncoder.encode(projectId, StandardCharsets.UTF_8) + "/members").getAsJsonArray();
             for (JsonElement elem : array) {
                 JsonObject json = elem.getAsJsonObject();
                 if (json.get("role").getAsString().toLowerCase(Locale.ROOT).equals("owner")) {
@@ -118,15 +119,15 @@ public class ModrinthAPI {
         }
     }
     
-    private static JsonElement request(String route) throws IOException {
-        return request(route, Map.of());
+    private static JsonElement request(Project project, String route) throws IOException {
+        return request(project, route, Map.of());
     }
 
-    private static JsonElement request(String route, Map<String, String> query) throws IOException {
-        return request(route, query, null);
+    private static JsonElement request(Project project, String route, Map<String, String> query) throws IOException {
+        return request(project, route, query, null);
     }
     
-    private static JsonElement request(String route, Map<String, String> query, @Nullable JsonElement body) throws IOException {
+    private static JsonElement request(Project project, String route, Map<String, String> query, @Nullable JsonElement body) throws IOException {
         String routeStr = route.startsWith("/") ? route.substring(1) : route;
         String queryStr = "";
         if (!query.isEmpty()) {
@@ -144,6 +145,7 @@ public class ModrinthAPI {
                 builder = HttpRequest.newBuilder().POST(HttpRequest.BodyPublishers.ofString(bodyStr));
                 builder = builder.header("Content-Type", "application/json");
             }
+            HttpClient client = ModGradleBuildService.get(project).get().httpClient();
             return client.<Either<JsonElement, IOException>>send(
                     builder.uri(req)
                             .header("Accept", "application/json")
@@ -9,6 +9,7 @@ import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.bundling.AbstractArchiveTask;
 import org.gradle.work.InputChanges;
 import org.moddingx.launcherlib.util.Side;
+import org.moddingx.modgradle.ModGradleBuildService;
 import org.moddingx.modgradle.plugins.packdev.PackSettings;
 import org.moddingx.modgradle.plugins.packdev.platform.ModFile;
 import org.moddingx.modgradle.plugins.packdev.platform.ModdingPlatform;
@@ -36,6 +37,9 @@ public abstract class BaseTargetTask<T extends ModFile> extends AbstractArchiveT
         this.platform = platform;
         this.settings = settings;
         this.files = files;
+        
+        // Mod files query the curse and modrinth apis through the shared build service
+        this.usesService(ModGradleBuildService.get(this.getProject()));
 
         this.getArchiveExtension().convention(this.getProject().provider(() -> "zip"));
 
@@ -123,7 +123,7 @@ public class CursePack<T extends ModFile> extends BaseTargetTask<T> {
                 }
             }
             if (!missing.isEmpty()) {
-                Map<Long, FileInfo> resolved = CurseUtil.API.matchFingerprints(missing.stream()
+                Map<Long, FileInfo> resolved = CurseUtil.api(this.getProject()).matchFingerprints(missing.stream()
                         .map(ResolvableFile::fingerprint)
                         .map(ComputedHash::longValue)
                         .collect(Collectors.toUnmodifiableSet())
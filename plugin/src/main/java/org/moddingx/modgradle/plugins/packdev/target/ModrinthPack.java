@@ -105,7 +105,7 @@ public class ModrinthPack<T extends ModFile> extends BaseTargetTask<T> {
                 }
             }
             if (!missing.isEmpty()) {
-                Map<ComputedHash, VersionInfo> resolved = ModrinthAPI.files(missing.stream().map(ResolvableFile::sha512).collect(Collectors.toUnmodifiableSet()));
+                Map<ComputedHash, VersionInfo> resolved = ModrinthAPI.files(this.getProject(), missing.stream().map(ResolvableFile::sha512).collect(Collectors.toUnmodifiableSet()));
                 for (ResolvableFile file : missing) {
                     VersionInfo info = resolved.get(file.sha512());
                     if (info != null) {
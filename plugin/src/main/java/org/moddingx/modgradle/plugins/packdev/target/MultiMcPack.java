@@ -30,7 +30,7 @@ public class MultiMcPack<T extends ModFile> extends BaseTargetTask<T> {
         try (FileSystem fs = FileSystems.newFileSystem(URI.create("jar:" + target.toUri()), Map.of(
                 "create", String.valueOf(!Files.exists(target))
         ))) {
-            JsonObject meta = MultiMcAPI.buildForgePack(this.settings.forge());
+            JsonObject meta = MultiMcAPI.buildForgePack(this.getProject(), this.settings.forge());
             try (Writer writer = Files.newBufferedWriter(fs.getPath("/mmc-pack.json"), StandardOpenOption.CREATE_NEW)) {
                 writer.write(ModGradle.GSON.toJson(meta) + "\n");
             }
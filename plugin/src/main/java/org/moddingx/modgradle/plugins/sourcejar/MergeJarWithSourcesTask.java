@@ -9,6 +9,8 @@ import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.InputFile;
 import org.gradle.api.tasks.InputFiles;
 import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.bundling.AbstractArchiveTask;
 import org.gradle.work.InputChanges;
@@ -36,7 +38,6 @@ public abstract class MergeJarWithSourcesTask extends AbstractArchiveTask {
         this.getArchiveVersion().convention(this.getProject().provider(() -> this.getProject().getVersion().toString()));
         this.getArchiveClassifier().convention(this.getProject().provider(() -> "sources"));
         this.getArchiveExtension().convention(this.getProject().provider(() -> "jar"));
-        this.getOutputs().upToDateWhen(t -> false);
         // We need dummy sources, or it will always skip with NO-SOURCE
         this.from(this.getBase(), this.getSources());
         this.getCoreModSources().convention(JavaEnv.getJavaExtension(this.getProject()).map(ext -> {
@@ -50,13 +51,16 @@ public abstract class MergeJarWithSourcesTask extends AbstractArchiveTask {
     }
     
     @InputFile
+    @PathSensitive(PathSensitivity.NONE)
     public abstract RegularFileProperty getBase();
 
     @InputFile
+    @PathSensitive(PathSensitivity.NONE)
     public abstract RegularFileProperty getSources();
 
     @Optional
     @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
     public abstract Property<FileCollection> getCoreModSources();
 
     @Nonnull
@@ -1,7 +1,6 @@
 package org.moddingx.modgradle.plugins.sourcejar;
 
 import net.minecraftforge.gradle.common.tasks.ApplyRangeMap;
-import net.minecraftforge.gradle.common.tasks.ExtractRangeMap;
 import net.minecraftforge.gradle.mcp.tasks.GenerateSRG;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
@@ -18,6 +17,7 @@ import org.moddingx.modgradle.util.java.JavaEnv;
 import org.moddingx.modgradle.util.java.JavaHelper;
 import org.moddingx.modgradle.util.McEnv;
 import org.moddingx.modgradle.util.MgUtil;
+import org.moddingx.modgradle.util.task.CachedExtractRangeMap;
 import org.moddingx.modgradle.util.task.ExtractInheritanceTask;
 import org.moddingx.modgradle.util.task.SourceMappingsTask;
 
@@ -53,19 +53,14 @@ public class SourceJarPlugin implements Plugin<Project> {
         Task buildTask = MgUtil.task(project, "build", Task.class);
 
         ExtractInheritanceTask extractInheritance = project.getTasks().create("sourceJarExtractInheritance", ExtractInheritanceTask.class);
-        extractInheritance.getOutputs().upToDateWhen(t -> false);
         if (compileTask != null) extractInheritance.dependsOn(compileTask);
         SourceMappingsTask createSourceMappings = project.getTasks().create("sourceJarGenerateMappings", SourceMappingsTask.class);
-        createSourceMappings.getOutputs().upToDateWhen(t -> false);
         createSourceMappings.dependsOn(extractInheritance, generateMappings);
         MergeMappingsTask mergeSourceMappings = project.getTasks().create("sourceJarMergeMappings", MergeMappingsTask.class);
-        mergeSourceMappings.getOutputs().upToDateWhen(t -> false);
         mergeSourceMappings.dependsOn(generateMappings, createSourceMappings);
-        ExtractRangeMap createRangeMap = project.getTasks().create("sourceJarRangeExtract", ExtractRangeMap.class);
-        createRangeMap.getOutputs().upToDateWhen(t -> false);
+        CachedExtractRangeMap createRangeMap = project.getTasks().create("sourceJarRangeExtract", CachedExtractRangeMap.class);
         if (compileTask != null) createRangeMap.dependsOn(compileTask);
         ApplyRangeMap applyRangeMap = project.getTasks().create("sourceJarRangeApply", ApplyRangeMap.class);
-        applyRangeMap.getOutputs().upToDateWhen(t -> false);
         applyRangeMap.dependsOn(createRangeMap, mergeSourceMappings);
         MergeJarWithSourcesTask mergeJars = project.getTasks().create("sourceJar", MergeJarWithSourcesTask.class);
         if (jarTask != null) mergeJars.dependsOn(jarTask);
@@ -4,23 +4,39 @@ import org.gradle.api.Action;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.artifacts.ProjectDependency;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ProjectComponentIdentifier;
 import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.FileCollection;
+import org.gradle.api.specs.Spec;
+import org.moddingx.modgradle.util.cache.ToolCacheService;
 import org.moddingx.modgradle.util.java.JarUtil;
 
 import javax.annotation.Nullable;
 import java.io.File;
+import java.time.Duration;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class ConfigurationDownloader {
 
+    // How long changing modules and dynamic versions are cached by gradle
+    private static final Duration CHANGING_MODULES_TIMEOUT = Duration.ofMinutes(10);
+    private static final Duration DYNAMIC_VERSIONS_TIMEOUT = Duration.ofMinutes(10);
+    
     private static final AtomicInteger CONFIGURATION_ID = new AtomicInteger(0);
     
+    /**
+     * Resolves a tool. The result is cached for the rest of the build and shared between all projects
+     * that use the same repositories.
+     */
     @Nullable
     public static Executable executable(Project project, String dependency) {
-        return executable(project, project.getDependencies().create(dependency));
+        return ToolCacheService.get(project).get().executable(project, dependency);
     }
     
     @Nullable
@@ -35,13 +51,26 @@ public class ConfigurationDownloader {
     
     @Nullable
     public static Executable executable(Project project, Dependency dependency) {
-        FileCollection files = download(project, dependency);
-        if (files == null) return null;
-        // Need to find out main class:
-        // We download the main file again without any dependencies
-        FileCollection mainFiles = download(project, dependency, configuration -> configuration.setTransitive(false));
-        if (mainFiles == null) return null;
-        Set<File> mainFileSet = mainFiles.getFiles();
+        Configuration configuration = createConfiguration(project, dependency, c -> {});
+        FileCollection files;
+        Set<File> mainFileSet;
+        try {
+            files = download(project, configuration, MgUtil.dependencyName(dependency));
+            if (files == null) return null;
+            // Need to find out main class:
+            // Filter the resolved artifacts down to the dependency itself
+            Spec<ComponentIdentifier> filter = componentFilter(dependency);
+            if (filter != null) {
+                mainFileSet = configuration.getIncoming().artifactView(view -> view.componentFilter(filter)).getFiles().getFiles();
+            } else {
+                // We download the main file again without any dependencies
+                FileCollection mainFiles = download(project, dependency, c -> c.setTransitive(false));
+                if (mainFiles == null) return null;
+                mainFileSet = mainFiles.getFiles();
+            }
+        } finally {
+            project.getConfigurations().remove(configuration);
+        }
         if (mainFileSet.isEmpty()) throw new IllegalStateException("Dependency resolved to nothing: " + MgUtil.dependencyName(dependency)); 
         if (mainFileSet.size() > 1) throw new IllegalStateException("Dependency resolved to more than one element: " + MgUtil.dependencyName(dependency)); 
         String mainClass = JarUtil.mainClass(mainFileSet.iterator().next());
@@ -56,16 +85,35 @@ public class ConfigurationDownloader {
     
     @Nullable
     public static FileCollection download(Project project, Dependency dependency, Action<Configuration> action) {
+        Configuration configuration = createConfiguration(project, dependency, action);
+        try {
+            return download(project, configuration, MgUtil.dependencyName(dependency));
+        } finally {
+            project.getConfigurations().remove(configuration);
+        }
+    }
+    
+    private static Configuration createConfiguration(Project project, Dependency dependency, Action<Configuration> action) {
         Configuration configuration = project.getConfigurations().create("modgradle_cfg_" + CONFIGURATION_ID.getAndIncrement());
         configuration.getDependencies().add(dependency);
         configuration.resolutionStrategy(resolution -> {
-            resolution.cacheChangingModulesFor(10, TimeUnit.MINUTES);
-            resolution.cacheDynamicVersionsFor(10, TimeUnit.MINUTES);
+            resolution.cacheChangingModulesFor((int) CHANGING_MODULES_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+            resolution.cacheDynamicVersionsFor((int) DYNAMIC_VERSIONS_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
         });
         action.execute(configuration);
-        FileCollection files = download(project, configuration, MgUtil.dependencyName(dependency));
-        project.getConfigurations().remove(configuration);
-        return files;
+        return configuration;
+    }
+    
+    @Nullable
+    private static Spec<ComponentIdentifier> componentFilter(Dependency dependency) {
+        if (dependency instanceof ExternalModuleDependency emd) {
+            return id -> id instanceof ModuleComponentIdentifier mid && mid.getGroup().equals(emd.getGroup()) && mid.getModule().equals(emd.getName());
+        } else if (dependency instanceof ProjectDependency pd) {
+            String path = pd.getDependencyProject().getPath();
+            return id -> id instanceof ProjectComponentIdentifier pid && pid.getProjectPath().equals(path);
+        } else {
+            return null;
+        }
     }
     
     @Nullable
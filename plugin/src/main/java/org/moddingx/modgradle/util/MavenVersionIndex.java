@@ -0,0 +1,119 @@
+package org.moddingx.modgradle.util;
+
+import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.apache.maven.artifact.repository.metadata.Versioning;
+import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Reader;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.gradle.api.Project;
+import org.moddingx.modgradle.ModGradleBuildService;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * The published versions of an artifact in a local maven repository. Versions are read from the
+ * {@code maven-metadata.xml} of the artifact. Only if that is missing, the artifact directory is searched
+ * for pom files. Indices are shared for the duration of a build until the metadata file changes and the
+ * highest version is remembered per base version.
+ */
+public class MavenVersionIndex {
+
+    // Files changed within this time may be changed again without a visible change of the modification time
+    private static final long MODIFICATION_GRANULARITY = 2000;
+
+    @Nullable
+    private final FileState metadataState;
+    private final List<String> versions;
+    private final Map<String, Optional<String>> highest = new ConcurrentHashMap<>();
+
+    private MavenVersionIndex(@Nullable FileState metadataState, List<String> versions) {
+        this.metadataState = metadataState;
+        this.versions = versions;
+    }
+
+    /**
+     * Gets the version index for an artifact.
+     *
+     * @param artifactPath The directory of the artifact inside the maven repository.
+     */
+    public static MavenVersionIndex get(Project project, Path artifactPath, String artifact) throws IOException {
+        Map<Path, MavenVersionIndex> indices = ModGradleBuildService.get(project).get().shared("maven_version_indices", ConcurrentHashMap::new);
+        Path path = artifactPath.toAbsolutePath().normalize();
+        Path metadataPath = path.resolve("maven-metadata.xml");
+        FileState state = FileState.of(metadataPath);
+        MavenVersionIndex index = indices.get(path);
+        // Without metadata, the directory must be searched again, as builds may have been added
+        if (index == null || index.metadataState == null || !index.metadataState.equals(state)) {
+            List<String> versions = state == null ? null : readMetadata(metadataPath);
+            if (versions == null) {
+                index = new MavenVersionIndex(null, walk(path, artifact));
+                indices.remove(path);
+            } else if (System.currentTimeMillis() - state.modified().toMillis() < MODIFICATION_GRANULARITY) {
+                // Recently modified, read again on next access
+                index = new MavenVersionIndex(null, versions);
+                indices.remove(path);
+            } else {
+                index = new MavenVersionIndex(state, versions);
+                indices.put(path, index);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Gets the highest version that starts with the given base version.
+     */
+    public Optional<String> highest(String baseVersion) {
+        return this.highest.computeIfAbsent(baseVersion, base -> this.versions.stream()
+                .filter(version -> version.startsWith(base))
+                .max(Comparator.comparing(ComparableVersion::new)));
+    }
+
+    @Nullable
+    private static List<String> readMetadata(Path metadataPath) {
+        try (InputStream in = Files.newInputStream(metadataPath)) {
+            Metadata metadata = new MetadataXpp3Reader().read(in, false);
+            Versioning versioning = metadata.getVersioning();
+            if (versioning == null || versioning.getVersions() == null || versioning.getVersions().isEmpty()) return null;
+            return versioning.getVersions().stream().map(String::strip).toList();
+        } catch (IOException | XmlPullParserException e) {
+            System.err.println("Failed to read maven metadata from " + metadataPath + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static List<String> walk(Path path, String artifact) throws IOException {
+        if (!Files.isDirectory(path)) return List.of();
+        try (Stream<Path> paths = Files.walk(path)) {
+            return paths
+                    .filter(file -> Files.isRegularFile(file) && file.getFileName().toString().endsWith(".pom"))
+                    .map(file -> {
+                        String fileName = file.getFileName().toString();
+                        return fileName.substring(fileName.indexOf('-', artifact.length()) + 1, fileName.length() - 4);
+                    })
+                    .toList();
+        }
+    }
+
+    private record FileState(FileTime modified, long size) {
+
+        @Nullable
+        public static FileState of(Path path) throws IOException {
+            if (!Files.isRegularFile(path)) return null;
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new FileState(attributes.lastModifiedTime(), attributes.size());
+        }
+    }
+}
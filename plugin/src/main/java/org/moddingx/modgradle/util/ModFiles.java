@@ -1,14 +1,15 @@
 package org.moddingx.modgradle.util;
 
 import com.google.gson.JsonObject;
+import org.moddingx.modgradle.ModGradleBuildService;
 import org.moddingx.modgradle.api.Versioning;
 
 public class ModFiles {
     
-    public static void addPackVersions(JsonObject json, String minecraftVersion) {
+    public static void addPackVersions(ModGradleBuildService service, JsonObject json, String minecraftVersion) {
         JsonObject pack = json.has("pack") && json.get("pack").isJsonObject() ? json.get("pack").getAsJsonObject() : new JsonObject();
-        int resourceVersion = Versioning.getResourceVersion(minecraftVersion);
-        int dataVersion = Versioning.getDataVersion(minecraftVersion).orElse(resourceVersion);
+        int resourceVersion = Versioning.getResourceVersion(service, minecraftVersion);
+        int dataVersion = Versioning.getDataVersion(service, minecraftVersion).orElse(resourceVersion);
         pack.addProperty("pack_format", Math.max(resourceVersion, dataVersion));
         pack.remove("forge:client_resources_pack_format");
         pack.remove("forge:server_data_pack_format");
@@ -1,37 +1,121 @@
 package org.moddingx.modgradle.util;
 
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
 import java.util.function.Predicate;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
+/**
+ * Matches package names against patterns. Patterns are package names where a segment may also be
+ * {@code *} (exactly one segment), {@code **} (one or more segments) or {@code *?} (zero or more segments).
+ * If {@code *?} follows a plain segment, that segment also matches as a prefix, so {@code a.*?} matches {@code ab.c}.
+ * A package matches, if it matches any pattern from {@code packages} and no pattern from {@code but}.
+ */
 public record PackageMatcher(List<String> packages, List<String> but) {
-    
+
+    // Marks a token that matches all segments starting with the rest of the token
+    private static final String PREFIX = "\0";
+
     public Predicate<String> getMatcher() {
-        Predicate<String> includes = this.packages.stream()
-                .map(PackageMatcher::pkgPattern)
-                .map(Pattern::asMatchPredicate)
-                .reduce(pkg -> false, (p1, p2) -> pkg -> p1.test(pkg) || p2.test(pkg));
-        Predicate<String> excludes = this.but.stream()
-                .map(PackageMatcher::pkgPattern)
-                .map(Pattern::asMatchPredicate)
-                .reduce(pkg -> false, (p1, p2) -> pkg -> p1.test(pkg) || p2.test(pkg));
+        // All patterns are compiled into a single trie over package segments.
+        // Wildcards are followed as a set of active nodes, so there is no backtracking.
+        Node root = new Node();
+        this.packages.forEach(pattern -> root.add(tokens(pattern)).include = true);
+        this.but.forEach(pattern -> root.add(tokens(pattern)).exclude = true);
         return pkg -> {
-            String matchStr = "." + pkg;
-            return includes.test(matchStr) && !excludes.test(matchStr);
+            Set<Node> current = new HashSet<>();
+            root.closure(current);
+            int start = 0;
+            while (start <= pkg.length() && !current.isEmpty() && !pkg.isEmpty()) {
+                int end = pkg.indexOf('.', start);
+                if (end < 0) end = pkg.length();
+                String segment = pkg.substring(start, end);
+                Set<Node> next = new HashSet<>();
+                for (Node node : current) {
+                    node.step(segment, next);
+                }
+                current = next;
+                start = end + 1;
+            }
+            boolean include = false;
+            for (Node node : current) {
+                if (node.exclude) return false;
+                include |= node.include;
+            }
+            return include;
         };
     }
-    
-    private static Pattern pkgPattern(String pkg) {
-        String pattern = Arrays.stream(pkg.split("\\."))
-                .map(part -> switch (part) {
-                    case "**" -> "\\..+";
-                    case "*" -> "\\.[^\\.]+";
-                    case "*?" -> "\\.?.*";
-                    default -> Pattern.quote("." + part);
-                })
-                .collect(Collectors.joining(""));
-        return Pattern.compile(pattern);
+
+    private static List<String> tokens(String pattern) {
+        if (pattern.isEmpty()) return List.of();
+        List<String> tokens = new ArrayList<>();
+        String[] parts = pattern.split("\\.");
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i];
+            if (part.equals("**")) {
+                // One segment followed by any amount of segments
+                tokens.add("*");
+                tokens.add("*?");
+            } else if (i + 1 < parts.length && parts[i + 1].equals("*?") && !part.equals("*") && !part.equals("*?")) {
+                // '*?' may continue the previous segment
+                tokens.add(PREFIX + part);
+            } else {
+                tokens.add(part);
+            }
+        }
+        return tokens;
+    }
+
+    private static class Node {
+
+        private final Map<String, Node> literals = new HashMap<>();
+        private final Map<String, Node> prefixes = new HashMap<>();
+        private Node one = null;
+        // Reached without consuming a segment, loops on every segment
+        private Node any = null;
+        private boolean loop = false;
+        private boolean include = false;
+        private boolean exclude = false;
+
+        public Node add(List<String> tokens) {
+            Node node = this;
+            for (String token : tokens) {
+                switch (token) {
+                    case "*" -> {
+                        if (node.one == null) node.one = new Node();
+                        node = node.one;
+                    }
+                    case "*?" -> {
+                        if (node.any == null) {
+                            node.any = new Node();
+                            node.any.loop = true;
+                        }
+                        node = node.any;
+                    }
+                    default -> {
+                        if (token.startsWith(PREFIX)) {
+                            node = node.prefixes.computeIfAbsent(token.substring(PREFIX.length()), k -> new Node());
+                        } else {
+                            node = node.literals.computeIfAbsent(token, k -> new Node());
+                        }
+                    }
+                }
+            }
+            return node;
+        }
+
+        public void step(String segment, Set<Node> next) {
+            Node literal = this.literals.get(segment);
+            if (literal != null) literal.closure(next);
+            for (Map.Entry<String, Node> prefix : this.prefixes.entrySet()) {
+                if (segment.startsWith(prefix.getKey())) prefix.getValue().closure(next);
+            }
+            if (this.one != null) this.one.closure(next);
+            if (this.loop) this.closure(next);
+        }
+
+        public void closure(Set<Node> nodes) {
+            if (nodes.add(this) && this.any != null) {
+                this.any.closure(nodes);
+            }
+        }
     }
 }
@@ -0,0 +1,46 @@
+package org.moddingx.modgradle.util.cache;
+
+import org.moddingx.modgradle.plugins.mapping.provider.MappingsProvider;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Removes unused entries from the caches of ModGradle in the gradle user home. Like the cleanup of gradle's
+ * own caches, this runs at most once a day and removes entries that have not been used for 30 days.
+ */
+public class CacheCleanup {
+
+    private static final Duration MAX_AGE = Duration.ofDays(30);
+    private static final Duration INTERVAL = Duration.ofDays(1);
+
+    /**
+     * Cleans up the caches, if they have not been cleaned up during the last day.
+     *
+     * @param cacheRoot The root directory of all ModGradle caches, see {@link CacheUtil#cachePath(org.gradle.api.Project, String...)}.
+     */
+    public static void run(Path cacheRoot) throws IOException {
+        Path marker = cacheRoot.resolve("cleanup.marker");
+        if (!isDue(marker)) return;
+        CacheUtil.locked(marker, () -> {
+            // Another build might have cleaned up in the meantime
+            if (!isDue(marker)) return null;
+            // Depth is the amount of directories between the cache directory and an entry.
+            // Entries are removed while holding the same lock that is used to write them.
+            CacheUtil.cleanup(cacheRoot.resolve("http"), 3, MAX_AGE, entry -> entry.resolveSibling(entry.getFileName() + ".bin"));
+            CacheUtil.cleanup(cacheRoot.resolve("hashes"), 2, MAX_AGE, null);
+            CacheUtil.cleanup(cacheRoot.resolve("mappings"), 4, MAX_AGE, MappingsProvider::getLockPath);
+            CacheUtil.cleanup(cacheRoot.resolve("javadoc_links"), 2, MAX_AGE, entry -> entry.resolveSibling("meta.json"));
+            CacheUtil.cleanup(cacheRoot.resolve("typescript"), 1, MAX_AGE, entry -> entry);
+            CacheUtil.cleanup(cacheRoot.resolve("curse").resolve("manifests"), 1, MAX_AGE, null);
+            CacheUtil.publish(marker, out -> {});
+            return null;
+        });
+    }
+
+    private static boolean isDue(Path marker) throws IOException {
+        return !Files.isRegularFile(marker) || System.currentTimeMillis() - Files.getLastModifiedTime(marker).toMillis() > INTERVAL.toMillis();
+    }
+}
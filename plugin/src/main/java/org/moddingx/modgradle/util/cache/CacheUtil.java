@@ -0,0 +1,235 @@
+package org.moddingx.modgradle.util.cache;
+
+import org.apache.commons.io.file.PathUtils;
+import org.apache.commons.io.function.IOConsumer;
+import org.apache.commons.io.function.IOSupplier;
+import org.gradle.api.Project;
+import org.gradle.api.invocation.Gradle;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Helpers for caches in the gradle user home, that are shared between projects and builds.
+ */
+public class CacheUtil {
+    
+    // File locks are held by the JVM, not by a thread. So threads of the same JVM
+    // need to be synchronised before the file is locked. These need to be global for the JVM.
+    // There is one lock per file, as locks shared between files can deadlock when an action
+    // waits for another thread that locks a different file. Unused locks are removed.
+    private static final Map<Path, PathLock> LOCKS = new ConcurrentHashMap<>();
+    
+    // Entries are only marked as used once in this interval, so reading from a cache does not write every time.
+    private static final Duration MARK_INTERVAL = Duration.ofDays(1);
+    
+    public static Path cachePath(Project project, String... path) {
+        return cachePath(project.getGradle(), path);
+    }
+    
+    public static Path cachePath(Gradle gradle, String... path) {
+        return cachePath(gradle.getGradleUserHomeDir().toPath(), path);
+    }
+
+    /**
+     * Gets a cache path for code that runs outside a build. This uses the gradle user home set by the
+     * {@code gradle.user.home} system property or the {@code GRADLE_USER_HOME} environment variable and
+     * falls back to {@code ~/.gradle}.
+     */
+    public static Path defaultCachePath(String... path) {
+        String userHome = System.getProperty("gradle.user.home");
+        if (userHome == null || userHome.isBlank()) userHome = System.getenv("GRADLE_USER_HOME");
+        if (userHome == null || userHome.isBlank()) return cachePath(Path.of(System.getProperty("user.home"), ".gradle"), path);
+        return cachePath(Path.of(userHome), path);
+    }
+
+    private static Path cachePath(Path gradleUserHome, String... path) {
+        Path base = gradleUserHome.resolve("caches").resolve("modgradle");
+        for (String part : path) {
+            base = base.resolve(part.replace('/', '_').replace('\\', '_').replace(':', '_'));
+        }
+        return base.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Runs the given action while holding a lock on the given file. The lock is held for threads in this JVM
+     * as well as for other processes.
+     */
+    public static <T> T locked(Path target, IOSupplier<T> action) throws IOException {
+        Path lockFile = lockFile(target);
+        PathLock lock = LOCKS.compute(lockFile, (key, value) -> {
+            PathLock pathLock = value == null ? new PathLock() : value;
+            pathLock.users += 1;
+            return pathLock;
+        });
+        lock.lock.lock();
+        try {
+            PathUtils.createParentDirectories(lockFile);
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                return action.get();
+            }
+        } finally {
+            lock.lock.unlock();
+            LOCKS.compute(lockFile, (key, value) -> {
+                if (value == null) return null;
+                value.users -= 1;
+                return value.users <= 0 ? null : value;
+            });
+        }
+    }
+
+    private static Path lockFile(Path target) {
+        Path path = target.toAbsolutePath().normalize();
+        return path.resolveSibling(path.getFileName().toString() + ".lock");
+    }
+
+    /**
+     * Writes a file into a temporary file next to the target and then atomically moves it in place.
+     * That way, other processes never see partially written files.
+     */
+    public static void publish(Path target, IOConsumer<OutputStream> writer) throws IOException {
+        Path path = target.toAbsolutePath().normalize();
+        PathUtils.createParentDirectories(path);
+        Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writer.accept(out);
+            }
+            move(temp, path);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    /**
+     * Moves a file into place, atomically if the file system supports it.
+     */
+    public static void move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException | UnsupportedOperationException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    /**
+     * Marks a cache entry as used, so it is not removed by {@link #cleanup(Path, int, Duration, UnaryOperator)}.
+     * This updates the modification time of the file or directory.
+     */
+    public static void markUsed(Path path) {
+        try {
+            long now = System.currentTimeMillis();
+            if (Files.exists(path) && now - Files.getLastModifiedTime(path).toMillis() > MARK_INTERVAL.toMillis()) {
+                Files.setLastModifiedTime(path, FileTime.fromMillis(now));
+            }
+        } catch (IOException e) {
+            // Not critical, the entry might just be removed earlier.
+        }
+    }
+
+    /**
+     * Removes cache entries that have not been used for longer than {@code maxAge}. Entries are the files and
+     * directories at the given depth below the cache directory. Files that only differ in their extension, like
+     * data and metadata of an entry, form a single entry. An entry counts as used when it was modified or
+     * {@link #markUsed(Path) marked as used}.
+     *
+     * @param lockTarget Maps an entry (without extension) to the path that is {@link #locked(Path, IOSupplier) locked}
+     *                   while the entry is written. The entry is only removed while holding that lock. May be
+     *                   {@code null} for caches that only {@link #publish(Path, IOConsumer) publish} files without locking.
+     */
+    public static void cleanup(Path dir, int depth, Duration maxAge, @Nullable UnaryOperator<Path> lockTarget) throws IOException {
+        Path root = dir.toAbsolutePath().normalize();
+        if (!Files.isDirectory(root)) return;
+        long cutoff = System.currentTimeMillis() - maxAge.toMillis();
+        Map<Path, List<Path>> entries = new HashMap<>();
+        try (Stream<Path> paths = Files.walk(root, depth)) {
+            for (Path path : paths.filter(p -> !p.equals(root) && root.relativize(p).getNameCount() == depth).toList()) {
+                String fileName = path.getFileName().toString();
+                if (fileName.endsWith(".lock")) {
+                    // Lock files are kept, another process might hold a lock on them right now.
+                    // Deleting them would let the next process lock a new file, while the old lock is still held.
+                    continue;
+                } else if (Files.isDirectory(path) || !fileName.contains(".")) {
+                    entries.computeIfAbsent(path, k -> new ArrayList<>()).add(path);
+                } else {
+                    entries.computeIfAbsent(path.resolveSibling(fileName.substring(0, fileName.indexOf('.'))), k -> new ArrayList<>()).add(path);
+                }
+            }
+        }
+        for (Map.Entry<Path, List<Path>> entry : entries.entrySet()) {
+            if (lastUsed(entry.getValue()) >= cutoff) continue;
+            try {
+                if (lockTarget == null) {
+                    delete(entry.getValue(), cutoff);
+                } else {
+                    // The entry could be used by another build right now, so check again while holding its lock.
+                    locked(lockTarget.apply(entry.getKey()), () -> {
+                        delete(entry.getValue(), cutoff);
+                        return null;
+                    });
+                }
+            } catch (IOException e) {
+                // Probably in use, try again on the next cleanup
+            }
+        }
+        deleteEmptyDirectories(root, depth - 1);
+    }
+
+    private static void delete(List<Path> entry, long cutoff) throws IOException {
+        if (lastUsed(entry) >= cutoff) return;
+        for (Path path : entry) {
+            if (Files.isDirectory(path)) {
+                PathUtils.deleteDirectory(path);
+            } else {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static long lastUsed(List<Path> entry) throws IOException {
+        long lastUsed = 0;
+        for (Path path : entry) {
+            if (Files.exists(path)) lastUsed = Math.max(lastUsed, Files.getLastModifiedTime(path).toMillis());
+        }
+        return lastUsed;
+    }
+
+    // Removes empty directories between the cache directory and the entries
+    private static void deleteEmptyDirectories(Path dir, int levels) throws IOException {
+        if (levels <= 0) return;
+        List<Path> children;
+        try (Stream<Path> paths = Files.list(dir)) {
+            children = paths.filter(path -> Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)).toList();
+        }
+        for (Path child : children) {
+            deleteEmptyDirectories(child, levels - 1);
+            try (Stream<Path> paths = Files.list(child)) {
+                if (paths.findAny().isPresent()) continue;
+            }
+            try {
+                Files.deleteIfExists(child);
+            } catch (DirectoryNotEmptyException e) {
+                // Something was added in the meantime
+            }
+        }
+    }
+
+    private static class PathLock {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        // Only accessed inside LOCKS.compute
+        private int users = 0;
+    }
+}
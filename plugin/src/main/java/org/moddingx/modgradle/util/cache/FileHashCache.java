@@ -0,0 +1,71 @@
+package org.moddingx.modgradle.util.cache;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.gradle.api.Project;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Content hashes of files, cached in the gradle user home. Entries are keyed by the absolute path of a file
+ * and are valid as long as size and modification time of the file don't change. This way large libraries
+ * like jmods of the JDK or the minecraft jar are only hashed once.
+ */
+public class FileHashCache {
+
+    private final Path base;
+
+    public FileHashCache(Path base) {
+        this.base = base;
+    }
+
+    public static FileHashCache create(Project project) {
+        return new FileHashCache(CacheUtil.cachePath(project, "hashes"));
+    }
+
+    /**
+     * Gets the content hash of a file or directory. Directories are hashed by relative path and content of all
+     * files inside, they are not cached.
+     */
+    public HashCode hash(Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            Hasher hasher = Hashing.sha256().newHasher();
+            List<Path> files;
+            try (Stream<Path> stream = Files.walk(path)) {
+                files = stream.filter(Files::isRegularFile).sorted().toList();
+            }
+            for (Path file : files) {
+                hasher.putString(path.relativize(file).toString().replace('\\', '/'), StandardCharsets.UTF_8);
+                hasher.putBytes(hashContent(file).asBytes());
+            }
+            return hasher.hash();
+        } else if (!Files.exists(path)) {
+            return Hashing.sha256().hashString("missing", StandardCharsets.UTF_8);
+        }
+
+        Path abs = path.toAbsolutePath().normalize();
+        String key = Hashing.sha256().hashString(abs.toString(), StandardCharsets.UTF_8).toString();
+        Path entry = this.base.resolve(key.substring(0, 2)).resolve(key + ".txt");
+        String stamp = Files.size(abs) + " " + Files.getLastModifiedTime(abs).toMillis();
+        if (Files.isRegularFile(entry)) {
+            String[] cached = Files.readString(entry, StandardCharsets.UTF_8).strip().split(" ");
+            if (cached.length == 3 && stamp.equals(cached[0] + " " + cached[1])) {
+                CacheUtil.markUsed(entry);
+                return HashCode.fromString(cached[2]);
+            }
+        }
+        HashCode hash = hashContent(abs);
+        CacheUtil.publish(entry, out -> out.write((stamp + " " + hash + "\n").getBytes(StandardCharsets.UTF_8)));
+        return hash;
+    }
+
+    private static HashCode hashContent(Path file) throws IOException {
+        return com.google.common.io.Files.asByteSource(file.toFile()).hash(Hashing.sha256());
+    }
+}
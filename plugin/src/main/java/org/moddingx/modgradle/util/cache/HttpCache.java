@@ -0,0 +1,197 @@
+package org.moddingx.modgradle.util.cache;
+
+import com.google.common.hash.Hashing;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import org.moddingx.modgradle.ModGradle;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A persistent cache for remote files. Cached files are revalidated using {@code ETag} and {@code Last-Modified}
+ * headers, so unchanged files are not downloaded again.
+ */
+public class HttpCache {
+    
+    /**
+     * Max age for resources that never change.
+     */
+    public static final Duration IMMUTABLE = Duration.ofMillis(Long.MAX_VALUE);
+    
+    private final Path base;
+    private final boolean offline;
+    private final HttpClient client;
+
+    public HttpCache(Path base, boolean offline) {
+        this.base = base.toAbsolutePath().normalize();
+        this.offline = offline;
+        this.client = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+    
+    /**
+     * Gets a local file with the contents of the given {@link URL}. The cached file is always revalidated.
+     */
+    public Path get(URL url) throws IOException {
+        return this.get(url, Duration.ZERO);
+    }
+
+    /**
+     * Gets a local file with the contents of the given {@link URL}. The cached file is only revalidated if
+     * it has last been checked longer than {@code maxAge} ago. The returned file must not be modified.
+     */
+    public Path get(URL url, Duration maxAge) throws IOException {
+        String protocol = url.getProtocol().toLowerCase(Locale.ROOT);
+        if (protocol.equals("file")) {
+            try {
+                return Paths.get(url.toURI()).toAbsolutePath().normalize();
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                throw new IOException("Invalid file url: " + url, e);
+            }
+        }
+        
+        Path dataPath = this.dataPath(url);
+        Path metaPath = this.metaPath(url);
+        return CacheUtil.locked(dataPath, () -> {
+            Entry entry = Files.isRegularFile(dataPath) ? readEntry(metaPath) : null;
+            if (entry != null && (this.offline || System.currentTimeMillis() - entry.checked() < maxAge.toMillis())) {
+                CacheUtil.markUsed(metaPath);
+                return dataPath;
+            }
+            
+            try {
+                if (protocol.equals("http") || protocol.equals("https")) {
+                    this.revalidate(url, dataPath, metaPath, entry);
+                } else {
+                    // No way to revalidate, just download the file
+                    try (InputStream in = url.openStream()) {
+                        CacheUtil.publish(dataPath, out -> in.transferTo(out));
+                    }
+                    writeEntry(metaPath, new Entry(null, null, System.currentTimeMillis()));
+                }
+            } catch (IOException e) {
+                if (entry == null) throw e;
+                System.err.println("Failed to revalidate " + url + ", using cached version: " + e.getMessage());
+            }
+            return dataPath;
+        });
+    }
+    
+    /**
+     * Gets a local file with the contents of the given {@link URL}. If the url has been cached before, the cached
+     * file is returned immediately. If it has last been checked longer than {@code maxAge} ago, it is revalidated
+     * in the background and {@code onUpdate} is called, if the content has changed. The returned file must not
+     * be modified.
+     */
+    public Path getStale(URL url, Duration maxAge, Runnable onUpdate) throws IOException {
+        String protocol = url.getProtocol().toLowerCase(Locale.ROOT);
+        if (!protocol.equals("http") && !protocol.equals("https")) return this.get(url, maxAge);
+        Path dataPath = this.dataPath(url);
+        Path metaPath = this.metaPath(url);
+        Entry entry = Files.isRegularFile(dataPath) ? readEntry(metaPath) : null;
+        if (entry == null) return this.get(url, maxAge);
+        if (!this.offline && System.currentTimeMillis() - entry.checked() >= maxAge.toMillis()) {
+            FileTime modified = Files.getLastModifiedTime(dataPath);
+            CompletableFuture.runAsync(() -> {
+                try {
+                    // Checks the age again, so concurrent calls only revalidate once
+                    this.get(url, maxAge);
+                    if (!modified.equals(Files.getLastModifiedTime(dataPath))) onUpdate.run();
+                } catch (IOException e) {
+                    System.err.println("Failed to revalidate " + url + ": " + e.getMessage());
+                }
+            });
+        } else {
+            CacheUtil.markUsed(metaPath);
+        }
+        return dataPath;
+    }
+    
+    private Path dataPath(URL url) {
+        String key = Hashing.sha256().hashString(url.toString(), StandardCharsets.UTF_8).toString();
+        return this.base.resolve(key.substring(0, 2)).resolve(key + ".bin");
+    }
+    
+    private Path metaPath(URL url) {
+        String key = Hashing.sha256().hashString(url.toString(), StandardCharsets.UTF_8).toString();
+        return this.base.resolve(key.substring(0, 2)).resolve(key + ".json");
+    }
+    
+    private void revalidate(URL url, Path dataPath, Path metaPath, @Nullable Entry entry) throws IOException {
+        HttpRequest.Builder builder;
+        try {
+            builder = HttpRequest.newBuilder(url.toURI()).GET().header("User-Agent", "ModGradle");
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid url: " + url, e);
+        }
+        if (entry != null && entry.etag() != null) builder.header("If-None-Match", entry.etag());
+        if (entry != null && entry.lastModified() != null) builder.header("If-Modified-Since", entry.lastModified());
+        
+        HttpResponse<InputStream> response;
+        try {
+            response = this.client.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+        
+        try (InputStream in = response.body()) {
+            if (response.statusCode() == 304 && entry != null) {
+                writeEntry(metaPath, new Entry(entry.etag(), entry.lastModified(), System.currentTimeMillis()));
+            } else if (response.statusCode() / 100 == 2) {
+                CacheUtil.publish(dataPath, in::transferTo);
+                writeEntry(metaPath, new Entry(
+                        response.headers().firstValue("ETag").orElse(null),
+                        response.headers().firstValue("Last-Modified").orElse(null),
+                        System.currentTimeMillis()
+                ));
+            } else {
+                throw new IOException("HTTP Status Code " + response.statusCode() + ": " + url);
+            }
+        }
+    }
+    
+    @Nullable
+    private static Entry readEntry(Path metaPath) {
+        if (!Files.isRegularFile(metaPath)) return null;
+        try {
+            JsonObject json = ModGradle.INTERNAL.fromJson(Files.readString(metaPath, StandardCharsets.UTF_8), JsonObject.class);
+            return new Entry(
+                    json.has("etag") ? json.get("etag").getAsString() : null,
+                    json.has("lastModified") ? json.get("lastModified").getAsString() : null,
+                    json.get("checked").getAsLong()
+            );
+        } catch (IOException | JsonParseException | NullPointerException | IllegalStateException e) {
+            // Broken metadata, revalidate
+            return null;
+        }
+    }
+    
+    private static void writeEntry(Path metaPath, Entry entry) throws IOException {
+        JsonObject json = new JsonObject();
+        if (entry.etag() != null) json.addProperty("etag", entry.etag());
+        if (entry.lastModified() != null) json.addProperty("lastModified", entry.lastModified());
+        json.addProperty("checked", entry.checked());
+        byte[] data = (ModGradle.INTERNAL.toJson(json) + "\n").getBytes(StandardCharsets.UTF_8);
+        CacheUtil.publish(metaPath, out -> out.write(data));
+    }
+    
+    private record Entry(@Nullable String etag, @Nullable String lastModified, long checked) {}
+}
@@ -0,0 +1,74 @@
+package org.moddingx.modgradle.util.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import net.minecraftforge.srgutils.IMappingFile;
+import org.gradle.api.Project;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A build service that holds parsed mapping files for the duration of a build. Mappings are keyed by the hash
+ * of their content, so the same mappings are only parsed once, even if they are read by tasks from different
+ * projects. Parsed mappings must not be modified.
+ */
+public abstract class MappingCacheService implements BuildService<MappingCacheService.Params>, AutoCloseable {
+
+    public static final String NAME = "modgradle_mappings";
+
+    private final Cache<HashCode, Entry> cache;
+
+    public MappingCacheService() {
+        // Weights are in KiB. Values are soft, so the JVM can still drop them before the budget is reached.
+        long budget = Math.max(1, this.getParameters().getMemoryBudget().get() / 1024);
+        this.cache = CacheBuilder.newBuilder()
+                .softValues()
+                .maximumWeight(budget)
+                .<HashCode, Entry>weigher((key, value) -> value.weight())
+                .build();
+    }
+
+    public static Provider<MappingCacheService> get(Project project) {
+        return project.getGradle().getSharedServices().registerIfAbsent(NAME, MappingCacheService.class, spec -> {
+            spec.getParameters().getMemoryBudget().convention(Runtime.getRuntime().maxMemory() / 8);
+        });
+    }
+
+    public IMappingFile load(Path path) throws IOException {
+        HashCode hash = com.google.common.io.Files.asByteSource(path.toFile()).hash(Hashing.sha256());
+        try {
+            return this.cache.get(hash, () -> {
+                // Parsed mappings take a lot more memory than the file, this is a rough estimate.
+                int weight = (int) Math.min(Integer.MAX_VALUE, (Files.size(path) * 8) / 1024);
+                return new Entry(IMappingFile.load(path.toFile()), weight);
+            }).mappings();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        this.cache.invalidateAll();
+    }
+
+    public interface Params extends BuildServiceParameters {
+
+        /**
+         * The amount of memory in bytes, parsed mappings may use. Default is an eighth of the maximum heap size.
+         */
+        Property<Long> getMemoryBudget();
+    }
+
+    private record Entry(IMappingFile mappings, int weight) {}
+}
@@ -0,0 +1,69 @@
+package org.moddingx.modgradle.util.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.repositories.ArtifactRepository;
+import org.gradle.api.artifacts.repositories.FlatDirectoryArtifactRepository;
+import org.gradle.api.artifacts.repositories.UrlArtifactRepository;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.moddingx.modgradle.util.ConfigurationDownloader;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A build service that remembers resolved tools for the duration of a build, so each tool is only resolved once,
+ * even when it is used by many tasks. Resolutions are keyed by the repositories of the requesting project,
+ * so projects with different repositories resolve the tool on their own.
+ */
+public abstract class ToolCacheService implements BuildService<BuildServiceParameters.None> {
+
+    public static final String NAME = "modgradle_tools";
+
+    private final Cache<String, Optional<Tool>> tools = CacheBuilder.newBuilder().build();
+
+    public static Provider<ToolCacheService> get(Project project) {
+        return project.getGradle().getSharedServices().registerIfAbsent(NAME, ToolCacheService.class, spec -> {});
+    }
+
+    @Nullable
+    public ConfigurationDownloader.Executable executable(Project project, String dependency) {
+        try {
+            // Concurrent requests for the same tool wait for a single resolution.
+            Optional<Tool> tool = this.tools.get(repositories(project) + dependency, () -> {
+                ConfigurationDownloader.Executable executable = ConfigurationDownloader.executable(project, project.getDependencies().create(dependency));
+                if (executable == null) return Optional.empty();
+                return Optional.of(new Tool(executable.mainClass(), List.copyOf(executable.classpath().getFiles())));
+            });
+            return tool.map(t -> new ConfigurationDownloader.Executable(t.mainClass(), project.files(t.classpath()))).orElse(null);
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    // Identifies the repositories of a project by their type, name and location, in resolution order
+    private static String repositories(Project project) {
+        StringBuilder sb = new StringBuilder();
+        for (ArtifactRepository repository : project.getRepositories()) {
+            sb.append(repository.getClass().getName()).append(":").append(repository.getName());
+            if (repository instanceof UrlArtifactRepository urlRepository) {
+                sb.append(":").append(urlRepository.getUrl());
+            }
+            if (repository instanceof FlatDirectoryArtifactRepository flatRepository) {
+                sb.append(":").append(flatRepository.getDirs());
+            }
+            sb.append(";");
+        }
+        return sb.toString();
+    }
+
+    private record Tool(String mainClass, List<File> classpath) {}
+}
@@ -1,14 +1,23 @@
 package org.moddingx.modgradle.util.curse;
 
+import org.gradle.api.Project;
 import org.moddingx.cursewrapper.api.CurseWrapper;
+import org.moddingx.modgradle.ModGradleBuildService;
 
 import java.net.URI;
 
 public class CurseUtil {
 
-    public static final CurseWrapper API = new CurseWrapper(URI.create("https://curse.melanx.de/"));
+    public static final URI ENDPOINT = URI.create("https://curse.melanx.de/");
     public static final URI CURSE_MAVEN = URI.create("https://www.cursemaven.com");
 
+    /**
+     * Gets the curse api client shared by all projects of the build.
+     */
+    public static CurseWrapper api(Project project) {
+        return ModGradleBuildService.get(project).get().curse();
+    }
+
     public static URI curseMaven(String endpoint) {
         return CURSE_MAVEN.resolve(endpoint.startsWith("/") ? endpoint : "/" + endpoint);
     }
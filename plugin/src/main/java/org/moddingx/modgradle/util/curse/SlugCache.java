@@ -0,0 +1,133 @@
+package org.moddingx.modgradle.util.curse;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import org.apache.commons.io.function.IOSupplier;
+import org.gradle.api.Project;
+import org.moddingx.cursewrapper.api.CurseWrapper;
+import org.moddingx.modgradle.ModGradle;
+import org.moddingx.modgradle.ModGradleBuildService;
+import org.moddingx.modgradle.util.cache.CacheUtil;
+import org.moddingx.modgradle.util.io.IOUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Slugs of curse projects, cached in the gradle user home. Slugs don't change, so cached slugs are never
+ * revalidated. Missing slugs are resolved concurrently.
+ */
+public class SlugCache {
+
+    public static final String UNKNOWN = "unknown";
+
+    private final CurseWrapper api;
+    private final Path path;
+    private final Map<Integer, String> slugs;
+
+    private SlugCache(CurseWrapper api, Path path, Map<Integer, String> slugs) {
+        this.api = api;
+        this.path = path;
+        this.slugs = slugs;
+    }
+
+    /**
+     * Gets the slug cache shared by all projects of the build.
+     */
+    public static SlugCache get(Project project) {
+        ModGradleBuildService service = ModGradleBuildService.get(project).get();
+        return service.shared("curse_slugs", () -> {
+            Path path = CacheUtil.cachePath(project, "curse", "slugs.json");
+            return new SlugCache(service.curse(), path, read(path));
+        });
+    }
+
+    public String get(int projectId) {
+        return this.get(List.of(projectId)).get(projectId);
+    }
+
+    /**
+     * Gets the slugs for all given projects. Slugs that can't be resolved are {@link #UNKNOWN}.
+     */
+    public synchronized Map<Integer, String> get(Collection<Integer> projectIds) {
+        Map<Integer, String> result = new HashMap<>();
+        Set<Integer> missing = new LinkedHashSet<>();
+        for (int projectId : projectIds) {
+            String slug = this.slugs.get(projectId);
+            if (slug != null) {
+                result.put(projectId, slug);
+            } else {
+                missing.add(projectId);
+            }
+        }
+        if (missing.isEmpty()) return result;
+
+        List<Integer> ids = List.copyOf(missing);
+        List<String> slugs;
+        try {
+            // Slugs that fail to resolve are null
+            slugs = IOUtil.parallel(ids.stream().<IOSupplier<String>>map(projectId -> () -> {
+                try {
+                    return this.api.getSlug(projectId);
+                } catch (IOException e) {
+                    return null;
+                }
+            }).toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Map<Integer, String> resolved = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (slugs.get(i) != null) {
+                resolved.put(ids.get(i), slugs.get(i));
+            } else {
+                result.put(ids.get(i), UNKNOWN);
+            }
+        }
+        result.putAll(resolved);
+        this.slugs.putAll(resolved);
+
+        if (!resolved.isEmpty()) {
+            try {
+                CacheUtil.locked(this.path, () -> {
+                    // Merge with slugs added by other builds in the meantime
+                    Map<Integer, String> all = read(this.path);
+                    all.putAll(this.slugs);
+                    JsonObject json = new JsonObject();
+                    all.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry -> json.addProperty(Integer.toString(entry.getKey()), entry.getValue()));
+                    byte[] data = (ModGradle.INTERNAL.toJson(json) + "\n").getBytes(StandardCharsets.UTF_8);
+                    CacheUtil.publish(this.path, out -> out.write(data));
+                    return null;
+                });
+            } catch (IOException e) {
+                System.err.println("Failed to save curse slug cache: " + e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    private static Map<Integer, String> read(Path path) {
+        Map<Integer, String> slugs = new HashMap<>();
+        if (!Files.isRegularFile(path)) return slugs;
+        try {
+            JsonObject json = ModGradle.INTERNAL.fromJson(Files.readString(path, StandardCharsets.UTF_8), JsonObject.class);
+            // Empty file
+            if (json == null) return slugs;
+            for (Map.Entry<String, JsonElement> entry : json.entrySet()) {
+                // Invalid entries are resolved again
+                if (entry.getValue().isJsonPrimitive()) {
+                    slugs.put(Integer.parseInt(entry.getKey()), entry.getValue().getAsString());
+                }
+            }
+        } catch (IOException | JsonParseException | NumberFormatException e) {
+            // Broken cache, slugs are resolved again
+            slugs.clear();
+        }
+        return slugs;
+    }
+}
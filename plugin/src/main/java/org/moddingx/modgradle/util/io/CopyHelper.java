@@ -2,13 +2,17 @@ package org.moddingx.modgradle.util.io;
 
 import groovy.lang.GroovyObjectSupport;
 import groovy.lang.Writable;
-import groovy.text.SimpleTemplateEngine;
 import groovy.text.Template;
 import net.minecraftforge.gradle.common.util.Artifact;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.file.PathUtils;
+import org.apache.commons.io.function.IORunnable;
 import org.apache.commons.io.function.IOSupplier;
 import org.gradle.api.Project;
+import org.moddingx.modgradle.ModGradleBuildService;
 import org.moddingx.modgradle.api.MixinVersion;
 import org.moddingx.modgradle.api.Versioning;
+import org.moddingx.modgradle.util.cache.CacheUtil;
 import org.moddingx.modgradle.util.McEnv;
 
 import javax.annotation.Nullable;
@@ -51,7 +55,7 @@ public class CopyHelper {
     }
     
     public static void copy(Project project, @WillNotClose Reader reader, Path to, Map<String, ?> replacements, OpenOption... open) throws IOException {
-        expand(project, reader, () -> Files.newBufferedWriter(to, StandardCharsets.UTF_8, open), replacements, true, true);
+        expandToFile(reader, to, makeReplacements(project, replacements), open);
     }
     
     public static void copyTemplateDir(Project project, Path from, Path to, CopyOption... options) throws IOException {
@@ -69,36 +73,33 @@ public class CopyHelper {
         
         FullReplacements map = makeReplacements(project, replacements);
         
-        record Rename(String from, String to) {}
-        List<Rename> renames;
-        if (renameFile == null) {
-            renames = List.of();
-        } else {
+        RenameTrie renames = new RenameTrie();
+        if (renameFile != null) {
             try (Stream<String> lines = Files.lines(renameFile, StandardCharsets.UTF_8)) {
-                renames = lines
+                List<String[]> renameLines = lines
                         .map(String::strip)
                         .filter(line -> !line.isEmpty())
                         .filter(line -> !line.startsWith("#"))
                         .map(line -> line.split(" +"))
-                        .map(parts -> {
-                            if (parts.length != 2) throw new UncheckedIOException(new IOException("Invalid path replacement: [ " + String.join(" ; ", parts) + " ]"));
-                            while (parts[0].startsWith("/")) parts[0] = parts[0].substring(1);
-                            while (parts[1].startsWith("/")) parts[1] = parts[1].substring(1);
-                            try {
-                                return new Rename(expandStringWithFullMap(parts[0], map), expandStringWithFullMap(parts[1], map));
-                            } catch (IOException e) {
-                                throw new UncheckedIOException(e);
-                            }
-                        })
                         .toList();
-            } catch (UncheckedIOException e) {
-                throw e.getCause();
+                for (String[] parts : renameLines) {
+                    if (parts.length != 2) throw new IOException("Invalid path replacement: [ " + String.join(" ; ", parts) + " ]");
+                    while (parts[0].startsWith("/")) parts[0] = parts[0].substring(1);
+                    while (parts[1].startsWith("/")) parts[1] = parts[1].substring(1);
+                    renames.add(expandStringWithFullMap(parts[0], map), expandStringWithFullMap(parts[1], map));
+                }
             }
         }
         
         boolean skipExisting = Arrays.asList(options).contains(TemplateCopyOption.SKIP_EXISTING);
         boolean replaceExisting = Arrays.asList(options).contains(StandardCopyOption.REPLACE_EXISTING);
         CopyOption[] copyOptionsToPassAround = Arrays.stream(options).filter(option -> option != TemplateCopyOption.SKIP_EXISTING).toArray(CopyOption[]::new);
+        
+        // First collect all files. Templates may run arbitrary code with access to the project, so they are
+        // expanded on the calling thread. Plain files are copied in parallel afterwards. Files, that are renamed
+        // to the same target are processed sequentially in the order they were visited.
+        Map<Path, List<IORunnable>> jobs = new LinkedHashMap<>();
+        Set<Path> templateTargets = new HashSet<>();
         Files.walkFileTree(from, new FileVisitor<>() {
             
             @Override
@@ -114,22 +115,24 @@ public class CopyHelper {
                 if (fileName.endsWith(".template")) {
                     // Must call target without the template extension, so renames work properly
                     Path target = this.target(file.toAbsolutePath().getParent().resolve(fileName.substring(0, fileName.length() - 9)));
-                    if (Files.exists(target)) {
-                        if (skipExisting) return FileVisitResult.CONTINUE;
-                        if (!replaceExisting) throw new FileAlreadyExistsException(target.toAbsolutePath().toString());
-                    }
-                    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
-                        expandFull(reader, () -> {
-                            if (target.getParent() != null) Files.createDirectories(target.getParent());
-                            return Files.newBufferedWriter(target, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-                        }, map, true, true);
-                    }
+                    templateTargets.add(target);
+                    jobs.computeIfAbsent(target, k -> new ArrayList<>()).add(() -> {
+                        if (Files.exists(target)) {
+                            if (skipExisting) return;
+                            if (!replaceExisting) throw new FileAlreadyExistsException(target.toAbsolutePath().toString());
+                        }
+                        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                            expandToFile(reader, target, map);
+                        }
+                    });
                 } else {
                     Path target = this.target(file);
-                    if (!skipExisting || !Files.exists(target)) {
-                        if (target.getParent() != null) Files.createDirectories(target.getParent());
-                        Files.copy(file, this.target(file), copyOptionsToPassAround);
-                    }
+                    jobs.computeIfAbsent(target, k -> new ArrayList<>()).add(() -> {
+                        if (!skipExisting || !Files.exists(target)) {
+                            if (target.getParent() != null) Files.createDirectories(target.getParent());
+                            Files.copy(file, target, copyOptionsToPassAround);
+                        }
+                    });
                 }
                 
                 return FileVisitResult.CONTINUE;
@@ -146,17 +149,7 @@ public class CopyHelper {
             }
             
             private Path target(Path path) throws IOException {
-                Path rel = from.relativize(path);
-                FileSystem relFs = rel.getFileSystem();
-                for (Rename rename : renames) {
-                    Path relRenamePath = relFs.getPath(rename.from().replace("/", relFs.getSeparator()));
-                    Path renamed = relFs.getPath(rename.to().replace("/", relFs.getSeparator()));
-                    if (!relRenamePath.isAbsolute() && !renamed.isAbsolute() && rel.startsWith(relRenamePath)) {
-                        Path partAfterRename = relRenamePath.relativize(rel);
-                        rel = renamed.resolve(partAfterRename);
-                        break;
-                    }
-                }
+                Path rel = renames.apply(from.relativize(path));
                 Path target;
                 if (Objects.equals(to.getFileSystem(), rel.getFileSystem())) {
                     target = to.resolve(rel);
@@ -169,6 +162,19 @@ public class CopyHelper {
                 return target;
             }
         });
+        
+        List<IOSupplier<Void>> copies = new ArrayList<>();
+        for (Map.Entry<Path, List<IORunnable>> entry : jobs.entrySet()) {
+            if (templateTargets.contains(entry.getKey())) {
+                for (IORunnable job : entry.getValue()) job.run();
+            } else {
+                copies.add(() -> {
+                    for (IORunnable job : entry.getValue()) job.run();
+                    return null;
+                });
+            }
+        }
+        IOUtil.parallel(copies);
     }
     
     public static void expand(Project project, @WillNotClose InputStream in, @WillNotClose OutputStream out) throws IOException {
@@ -186,12 +192,7 @@ public class CopyHelper {
     }
     
     private static void expand(Project project, @WillNotClose Reader reader, @WillNotClose Writer writer, Map<String, ?> replacements) throws IOException {
-        expand(project, reader, () -> writer, replacements, false, false);
-    }
-    
-    private static void expand(Project project, @WillNotClose Reader reader, IOSupplier<Writer> writerFactory, Map<String, ?> replacements, boolean canAbort, boolean closeOutput) throws IOException {
-        FullReplacements map = makeReplacements(project, replacements);
-        expandFull(reader, writerFactory, map, canAbort, closeOutput);
+        expandFull(reader, () -> writer, makeReplacements(project, replacements), false);
     }
     
     private static FullReplacements makeReplacements(Project project, Map<String, ?> replacements) {
@@ -203,14 +204,15 @@ public class CopyHelper {
             map.putIfAbsent("userdev", artifact.getName());
         }
         if (map.get("minecraft") instanceof String minecraft) {
-            map.putIfAbsent("jdk", Versioning.getJavaVersion(minecraft));
-            int resource = Versioning.getResourceVersion(minecraft);
-            int data = Versioning.getDataVersion(minecraft).orElse(resource);
+            ModGradleBuildService service = ModGradleBuildService.get(project).get();
+            map.putIfAbsent("jdk", Versioning.getJavaVersion(service, minecraft));
+            int resource = Versioning.getResourceVersion(service, minecraft);
+            int data = Versioning.getDataVersion(service, minecraft).orElse(resource);
             map.putIfAbsent("resource", resource);
             map.putIfAbsent("data", data);
             map.putIfAbsent("pack", Math.max(resource, data));
 
-            MixinVersion mixin = Versioning.getMixinVersion(minecraft).orElse(null);
+            MixinVersion mixin = Versioning.getMixinVersion(service, minecraft).orElse(null);
             if (mixin != null) {
                 map.putIfAbsent("mixin", mixin.release());
                 Matcher m = MIXIN_MIN_VERSION_PATTERN.matcher(mixin.release());
@@ -236,45 +238,21 @@ public class CopyHelper {
 
         map.put("project", project);
         map.put("gradle", project.getGradle());
-        return new FullReplacements(Collections.unmodifiableMap(map));
+        return new FullReplacements(Collections.unmodifiableMap(map), TemplateCache.get(project));
     }
 
     private static String expandStringWithFullMap(String string, FullReplacements replacements) throws IOException {
         StringWriter writer = new StringWriter();
         try (StringReader reader = new StringReader(string)) {
-            expandFull(reader, () -> writer, replacements, false, true);
+            expandFull(reader, () -> writer, replacements, true);
         }
         return writer.toString();
     }
     
-    private static void expandFull(@WillNotClose Reader reader, IOSupplier<Writer> writerFactory, FullReplacements replacements, boolean canAbort, boolean closeOutput) throws IOException {
-        Map<String, Object> fullMap = new HashMap<>(replacements.map());
-        fullMap.put("abort", new AbortAction(canAbort));
-        
-        StringWriter buf;
-        Writer writer;
-        if (canAbort) {
-            buf = new StringWriter();
-            writer = buf;
-        } else {
-            buf = null;
-            writer = writerFactory.get();
-        }
-        
+    private static void expandFull(@WillNotClose Reader reader, IOSupplier<Writer> writerFactory, FullReplacements replacements, boolean closeOutput) throws IOException {
+        Writer writer = writerFactory.get();
         try {
-            SimpleTemplateEngine engine = new SimpleTemplateEngine();
-            engine.setEscapeBackslash(false);
-            Template template = engine.createTemplate(reader);
-            Writable result = template.make(fullMap);
-            result.writeTo(writer);
-            writer.flush();
-            if (closeOutput) writer.close();
-        } catch (CopyAbortException e) {
-            if (canAbort) {
-                return;
-            } else {
-                throw e;
-            }
+            writeTemplate(reader, writer, replacements, false);
         } finally {
             if (closeOutput) {
                 try {
@@ -284,17 +262,115 @@ public class CopyHelper {
                 }
             }
         }
+    }
+    
+    // Templates, that may abort are written into a temporary file next to the target, which is moved in place
+    // when the template finished. If the template aborts, nothing is written.
+    private static void expandToFile(@WillNotClose Reader reader, Path target, FullReplacements replacements, OpenOption... open) throws IOException {
+        List<OpenOption> options = Arrays.asList(open);
+        boolean createNew = options.contains(StandardOpenOption.CREATE_NEW);
+        boolean append = options.contains(StandardOpenOption.APPEND);
+        if (createNew && Files.exists(target)) {
+            throw new FileAlreadyExistsException(target.toAbsolutePath().toString());
+        }
         
-        if (canAbort) {
-            writer.close();
-            Writer downstream = writerFactory.get();
-            downstream.write(buf.toString());
-            downstream.flush();
-            if (closeOutput) writer.close();
+        Path parent = target.toAbsolutePath().getParent();
+        Path createdDir = null;
+        if (parent != null && !Files.isDirectory(parent)) {
+            createdDir = parent;
+            while (createdDir.getParent() != null && !Files.isDirectory(createdDir.getParent())) createdDir = createdDir.getParent();
+            Files.createDirectories(parent);
         }
+        
+        Path temp = target.resolveSibling(target.getFileName().toString() + "." + UUID.randomUUID() + ".tmp");
+        boolean completed = false;
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW)) {
+                writeTemplate(reader, writer, replacements, true);
+            } catch (CopyAbortException e) {
+                return;
+            }
+            if (append) {
+                try (OutputStream out = Files.newOutputStream(target, open)) {
+                    Files.copy(temp, out);
+                }
+            } else if (createNew) {
+                Files.move(temp, target);
+            } else if (open.length != 0 && !options.contains(StandardOpenOption.CREATE) && !Files.exists(target)) {
+                throw new NoSuchFileException(target.toAbsolutePath().toString());
+            } else {
+                CacheUtil.move(temp, target);
+            }
+            completed = true;
+        } finally {
+            Files.deleteIfExists(temp);
+            if (!completed && createdDir != null) {
+                // Remove directories, that were only created for this file
+                for (Path dir = parent; dir != null && dir.startsWith(createdDir); dir = dir.getParent()) {
+                    if (!Files.isDirectory(dir) || !PathUtils.isEmptyDirectory(dir)) break;
+                    Files.delete(dir);
+                }
+            }
+        }
+    }
+    
+    private static void writeTemplate(@WillNotClose Reader reader, @WillNotClose Writer writer, FullReplacements replacements, boolean canAbort) throws IOException {
+        Map<String, Object> fullMap = new HashMap<>(replacements.map());
+        fullMap.put("abort", new AbortAction(canAbort));
+        Template template = replacements.templates().template(IOUtils.toString(reader));
+        Writable result = template.make(fullMap);
+        result.writeTo(writer);
+        writer.flush();
     }
     
-    private record FullReplacements(Map<String, Object> map) {}
+    private record FullReplacements(Map<String, Object> map, TemplateCache templates) {}
+    
+    // Path renames by their path segments. If multiple renames match, the one added first is used.
+    private static class RenameTrie {
+        
+        private final Map<String, RenameTrie> children = new HashMap<>();
+        private int index = -1;
+        private String[] renamed = null;
+        private int size = 0;
+        
+        public void add(String from, String to) {
+            RenameTrie node = this;
+            for (String segment : segments(from)) {
+                node = node.children.computeIfAbsent(segment, k -> new RenameTrie());
+            }
+            if (node.index < 0) {
+                node.index = this.size;
+                node.renamed = segments(to);
+            }
+            this.size += 1;
+        }
+        
+        public Path apply(Path rel) {
+            RenameTrie match = null;
+            int matchLength = 0;
+            RenameTrie node = this;
+            for (int i = 0; i <= rel.getNameCount(); i++) {
+                if (node.index >= 0 && (i > 0 || rel.toString().isEmpty()) && (match == null || node.index < match.index)) {
+                    match = node;
+                    matchLength = i;
+                }
+                if (i == rel.getNameCount()) break;
+                node = node.children.get(rel.getName(i).toString());
+                if (node == null) break;
+            }
+            if (match == null) return rel;
+            FileSystem fs = rel.getFileSystem();
+            Path result = fs.getPath("", match.renamed);
+            for (int i = matchLength; i < rel.getNameCount(); i++) {
+                result = result.resolve(rel.getName(i).toString());
+            }
+            return result;
+        }
+        
+        private static String[] segments(String path) {
+            return Arrays.stream(path.split("/")).filter(segment -> !segment.isEmpty()).toArray(String[]::new);
+        }
+    }
     
     private static class AbortAction extends GroovyObjectSupport {
         
@@ -1,14 +1,38 @@
 package org.moddingx.modgradle.util.io;
 
+import org.apache.commons.io.function.IOSupplier;
+
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.URI;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystemAlreadyExistsException;
 import java.nio.file.FileSystems;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class IOUtil {
-    
+
+    // Threads for blocking I/O, so downloads and file access don't occupy the common pool.
+    // Idle threads are stopped, so the pool keeps nothing alive between builds.
+    private static final ThreadLocal<Boolean> IO_THREAD = ThreadLocal.withInitial(() -> false);
+    private static final ThreadPoolExecutor EXECUTOR;
+
+    static {
+        AtomicInteger count = new AtomicInteger(0);
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        EXECUTOR = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(() -> {
+                IO_THREAD.set(true);
+                task.run();
+            }, "ModGradle I/O " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
     public static FileSystem getFileSystem(URI uri) throws IOException {
         try {
             return FileSystems.newFileSystem(uri, Map.of());
@@ -16,4 +40,43 @@ public class IOUtil {
             return FileSystems.getFileSystem(uri);
         }
     }
+
+    /**
+     * Runs the given actions concurrently and returns their results in the same order. When an action fails,
+     * the remaining actions are cancelled and its exception is rethrown. Calls from inside another action run
+     * all actions on the calling thread, so nested calls can't wait for each other.
+     */
+    public static <T> List<T> parallel(List<? extends IOSupplier<? extends T>> actions) throws IOException {
+        if (actions.size() <= 1 || IO_THREAD.get()) {
+            List<T> results = new ArrayList<>(actions.size());
+            for (IOSupplier<? extends T> action : actions) results.add(action.get());
+            return results;
+        }
+        CompletionService<T> completion = new ExecutorCompletionService<>(EXECUTOR);
+        Map<Future<T>, Integer> futures = new IdentityHashMap<>();
+        try {
+            for (IOSupplier<? extends T> action : actions) {
+                futures.put(completion.submit(action::get), futures.size());
+            }
+            List<T> results = new ArrayList<>(Collections.nCopies(actions.size(), null));
+            for (int i = 0; i < actions.size(); i++) {
+                Future<T> done = completion.take();
+                try {
+                    results.set(futures.get(done), done.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException ex) throw ex;
+                    if (e.getCause() instanceof RuntimeException ex) throw ex;
+                    if (e.getCause() instanceof Error ex) throw ex;
+                    throw new IOException(e.getCause());
+                }
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for I/O");
+        } finally {
+            // No-op if everything completed
+            futures.keySet().forEach(future -> future.cancel(true));
+        }
+    }
 }
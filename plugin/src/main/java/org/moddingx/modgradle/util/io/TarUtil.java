@@ -0,0 +1,92 @@
+package org.moddingx.modgradle.util.io;
+
+import org.apache.commons.io.file.PathUtils;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Extracts tar archives. Supports ustar, pax path headers and GNU long names, which covers npm package tarballs.
+ */
+public class TarUtil {
+
+    public static void extractGzip(InputStream in, Path target) throws IOException {
+        extract(new GZIPInputStream(in), target);
+    }
+
+    public static void extract(InputStream in, Path target) throws IOException {
+        Path base = target.toAbsolutePath().normalize();
+        String longName = null;
+        while (true) {
+            byte[] header = in.readNBytes(512);
+            if (header.length < 512 || isZero(header)) break;
+            String name = string(header, 0, 100);
+            String sizeStr = string(header, 124, 12).strip();
+            long size = sizeStr.isEmpty() ? 0 : Long.parseLong(sizeStr, 8);
+            char type = (char) header[156];
+            // Only POSIX ustar headers have a name prefix, GNU tar uses that space for other fields
+            if (isPosix(header)) {
+                String prefix = string(header, 345, 155);
+                if (!prefix.isEmpty()) name = prefix + "/" + name;
+            }
+            // Set by a preceding GNU long name ('L') or pax ('x') entry, replaces the name of this entry
+            if (longName != null) {
+                name = longName;
+                longName = null;
+            }
+
+            byte[] data = type == '0' || type == '\0' || type == 'x' || type == 'L' ? in.readNBytes((int) size) : null;
+            if (data == null) in.skipNBytes(size);
+            in.skipNBytes((512 - (size % 512)) % 512);
+
+            if (type == 'L' && data != null) {
+                longName = string(data, 0, data.length);
+            } else if (type == 'x' && data != null) {
+                longName = paxPath(new String(data, StandardCharsets.UTF_8));
+            } else if (type == '0' || type == '\0' || type == '5') {
+                Path path = base.resolve(name).normalize();
+                if (!path.startsWith(base)) throw new IOException("Tar entry outside of target: " + name);
+                if (type == '5') {
+                    Files.createDirectories(path);
+                } else {
+                    PathUtils.createParentDirectories(path);
+                    Files.write(path, data);
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private static String paxPath(String records) {
+        for (String record : records.split("\n")) {
+            int space = record.indexOf(' ');
+            if (space < 0) continue;
+            String keyValue = record.substring(space + 1);
+            if (keyValue.startsWith("path=")) return keyValue.substring(5);
+        }
+        return null;
+    }
+
+    private static boolean isPosix(byte[] header) {
+        // POSIX magic is "ustar\0", GNU magic is "ustar  "
+        return "ustar".equals(string(header, 257, 5)) && header[262] == 0;
+    }
+
+    private static String string(byte[] data, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && data[end] != 0) end++;
+        return new String(data, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isZero(byte[] data) {
+        for (byte b : data) {
+            if (b != 0) return false;
+        }
+        return true;
+    }
+}
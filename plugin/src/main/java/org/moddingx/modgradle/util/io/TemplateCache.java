@@ -0,0 +1,50 @@
+package org.moddingx.modgradle.util.io;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import groovy.lang.GroovyShell;
+import groovy.text.SimpleTemplateEngine;
+import groovy.text.Template;
+import org.gradle.api.Project;
+import org.moddingx.modgradle.ModGradleBuildService;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Compiled groovy templates, keyed by the hash of their content and shared for the duration of a build.
+ * Every template is compiled with its own class loader, so the generated script classes can be unloaded,
+ * when a template is evicted or the build finishes.
+ */
+class TemplateCache {
+
+    private final Cache<String, Template> cache = CacheBuilder.newBuilder()
+            .maximumSize(256)
+            .softValues()
+            .build();
+
+    public static TemplateCache get(Project project) {
+        return ModGradleBuildService.get(project).get().shared("templates", TemplateCache::new);
+    }
+
+    public Template template(String content) throws IOException {
+        String key = Hashing.sha256().hashString(content, StandardCharsets.UTF_8).toString();
+        try {
+            return this.cache.get(key, () -> compile(content));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof IOException ex) throw ex;
+            if (e.getCause() instanceof RuntimeException ex) throw ex;
+            throw new IOException("Failed to compile template", e.getCause());
+        }
+    }
+
+    private static Template compile(String content) throws IOException, ClassNotFoundException {
+        GroovyShell shell = new GroovyShell(TemplateCache.class.getClassLoader());
+        SimpleTemplateEngine engine = new SimpleTemplateEngine(shell);
+        engine.setEscapeBackslash(false);
+        return engine.createTemplate(content);
+    }
+}
@@ -1,16 +1,13 @@
 package org.moddingx.modgradle.util.java;
 
-import org.moddingx.modgradle.util.io.IOUtil;
-
 import javax.annotation.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.module.ModuleDescriptor;
-import java.net.URI;
-import java.nio.file.FileSystem;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 import java.util.jar.Manifest;
 
 public class JarUtil {
@@ -22,22 +19,20 @@ public class JarUtil {
     
     @Nullable
     public static String mainClass(Path jarFile) {
-        try (FileSystem fs = IOUtil.getFileSystem(URI.create("jar:" + jarFile.toAbsolutePath().normalize().toUri()))) {
-            Path manifestPath = fs.getPath("/META-INF/MANIFEST.MF");
-            if (Files.isRegularFile(manifestPath)) {
-                try (InputStream in = Files.newInputStream(manifestPath)) {
-                    Manifest manifest = new Manifest(in);
-                    // containsKey does not work
-                    Object value = manifest.getMainAttributes().getValue("Main-Class");
-                    if (value != null) {
-                        return value.toString().strip();
-                    }
+        // JarFile only reads the central directory and the requested entries, no need for a zip filesystem
+        try (JarFile jar = new JarFile(jarFile.toFile(), false)) {
+            Manifest manifest = jar.getManifest();
+            if (manifest != null) {
+                // containsKey does not work
+                Object value = manifest.getMainAttributes().getValue("Main-Class");
+                if (value != null) {
+                    return value.toString().strip();
                 }
             }
 
-            Path modulePath = fs.getPath("/module-info.class");
-            if (Files.isRegularFile(modulePath)) {
-                try (InputStream in = Files.newInputStream(modulePath)) {
+            JarEntry moduleEntry = jar.getJarEntry("module-info.class");
+            if (moduleEntry != null) {
+                try (InputStream in = jar.getInputStream(moduleEntry)) {
                     ModuleDescriptor module = ModuleDescriptor.read(in);
                     if (module.mainClass().isPresent()) {
                         return module.mainClass().get();
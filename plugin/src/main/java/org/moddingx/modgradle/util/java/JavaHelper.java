@@ -5,14 +5,11 @@ import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.ConfigurableFileTree;
 
 import java.io.IOException;
-import java.nio.file.DirectoryStream;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Stream;
 
 public class JavaHelper {
     
@@ -33,33 +30,9 @@ public class JavaHelper {
     
     public static Set<String> findPackages(List<Path> sourceDirs) throws IOException {
         Set<String> packages = new HashSet<>();
-
         for (Path source : sourceDirs) {
-            if (Files.isDirectory(source.toAbsolutePath().normalize())) {
-                try (Stream<Path> paths = Files.walk(source)) {
-                    //noinspection CodeBlock2Expr
-                    paths.filter((path) -> {
-                        if (Files.isDirectory(path) && !path.getFileName().toString().equals("META-INF")
-                                && !JavaHelper.isKeyword(path.getFileName().toString())) {
-                            try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
-                                for (Path content : stream) {
-                                    if (Files.isRegularFile(content) && content.getFileName().toString().endsWith(".java"))
-                                        return true;
-                                }
-                                return false;
-                            } catch (IOException e) {
-                                throw new IllegalStateException("Could not read directory " + source.relativize(path).normalize());
-                            }
-                        } else {
-                            return false;
-                        }
-                    }).forEach((path) -> {
-                        packages.add(source.relativize(path).normalize().toString().replace('/', '.'));
-                    });
-                }
-            }
+            packages.addAll(PackageIndex.create(source).packages());
         }
-        
         return Collections.unmodifiableSet(packages);
     }
 
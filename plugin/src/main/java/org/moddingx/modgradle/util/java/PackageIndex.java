@@ -0,0 +1,109 @@
+package org.moddingx.modgradle.util.java;
+
+import org.gradle.api.Project;
+import org.moddingx.modgradle.ModGradleBuildService;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An index of the java packages in a source root together with the files in each package directory.
+ * Indices are built in a single pass over the file tree and are remembered per root for the rest of the build.
+ * They are invalidated when the modification time of any directory in the root changes, which happens when files
+ * are added or removed.
+ */
+public class PackageIndex {
+
+    private final Map<Path, FileTime> directories;
+    private final Map<String, List<Path>> packages;
+
+    private PackageIndex(Map<Path, FileTime> directories, Map<String, List<Path>> packages) {
+        this.directories = directories;
+        this.packages = packages;
+    }
+
+    /**
+     * Gets the index for a source root. The index is shared for the rest of the build.
+     */
+    public static PackageIndex get(Project project, Path root) throws IOException {
+        Map<Path, PackageIndex> indices = ModGradleBuildService.get(project).get().shared("package_indices", ConcurrentHashMap::new);
+        Path path = root.toAbsolutePath().normalize();
+        PackageIndex index = indices.get(path);
+        if (index == null || !index.isValid()) {
+            index = build(path);
+            indices.put(path, index);
+        }
+        return index;
+    }
+
+    /**
+     * Builds a new index for a source root, that is not shared.
+     */
+    public static PackageIndex create(Path root) throws IOException {
+        return build(root.toAbsolutePath().normalize());
+    }
+
+    /**
+     * All packages in the source root. A package is a directory that directly contains a java file.
+     */
+    public Set<String> packages() {
+        return this.packages.keySet();
+    }
+
+    /**
+     * All regular files directly inside the directory of the given package.
+     */
+    public List<Path> files(String pkg) {
+        return this.packages.getOrDefault(pkg, List.of());
+    }
+
+    private boolean isValid() {
+        for (Map.Entry<Path, FileTime> entry : this.directories.entrySet()) {
+            try {
+                if (!entry.getValue().equals(Files.getLastModifiedTime(entry.getKey()))) return false;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static PackageIndex build(Path root) throws IOException {
+        Map<Path, FileTime> directories = new HashMap<>();
+        Map<String, List<Path>> packages = new HashMap<>();
+        if (!Files.isDirectory(root)) {
+            return new PackageIndex(Map.of(), Map.of());
+        }
+        Map<Path, List<Path>> files = new HashMap<>();
+        Set<Path> hasJava = new HashSet<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                directories.put(dir, attrs.lastModifiedTime());
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile()) {
+                    files.computeIfAbsent(file.getParent(), k -> new ArrayList<>()).add(file);
+                    if (file.getFileName().toString().endsWith(".java")) hasJava.add(file.getParent());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        for (Path dir : hasJava) {
+            String name = dir.getFileName() == null ? "" : dir.getFileName().toString();
+            if (name.equals("META-INF") || JavaHelper.isKeyword(name)) continue;
+            List<Path> dirFiles = files.get(dir);
+            dirFiles.sort(Comparator.naturalOrder());
+            packages.put(root.relativize(dir).normalize().toString().replace('/', '.').replace('\\', '.'), List.copyOf(dirFiles));
+        }
+        return new PackageIndex(Map.copyOf(directories), Map.copyOf(packages));
+    }
+}
@@ -4,17 +4,21 @@ import com.google.common.collect.ImmutableList;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import org.apache.commons.io.function.IOSupplier;
+import org.gradle.api.Project;
 import org.moddingx.modgradle.ModGradle;
+import org.moddingx.modgradle.ModGradleBuildService;
+import org.moddingx.modgradle.util.cache.HttpCache;
+import org.moddingx.modgradle.util.io.IOUtil;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.Reader;
 import java.net.URL;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
 
 public class MultiMcAPI {
     
@@ -23,15 +27,16 @@ public class MultiMcAPI {
     public static final String MC_UID = "net.minecraft";
     public static final String FORGE_UID = "net.minecraftforge";
 
-    public static JsonObject buildForgePack(String version) throws IOException {
-        return buildMmcPack(FORGE_UID, version);
+    public static JsonObject buildForgePack(Project project, String version) throws IOException {
+        return buildMmcPack(project, FORGE_UID, version);
     }
 
-    public static JsonObject buildMmcPack(String uid, String version) throws IOException {
+    public static JsonObject buildMmcPack(Project project, String uid, String version) throws IOException {
+        HttpCache cache = ModGradleBuildService.get(project).get().httpCache("multimc");
         Map<String, Component> components = new HashMap<>();
-        Component main = resolve(uid, version);
+        Component main = resolve(cache, uid, version);
         components.put(uid, main);
-        addDependencies(components, main);
+        addDependencies(cache, components, main);
 
         JsonArray array = new JsonArray();
         Set<String> addedUids = new HashSet<>();
@@ -63,18 +68,29 @@ public class MultiMcAPI {
         }
     }
 
-    private static void addDependencies(Map<String, Component> components, Component component) throws IOException {
-        for (Dependency dep : component.requires()) {
-            if (!components.containsKey(dep.uid())) {
-                Component resolved = dep.resolve();
+    // Resolves depth first like a sequential resolution, so the first requirement of a uid decides its version.
+    // The requirements of a component are fetched concurrently before descending into them.
+    private static void addDependencies(HttpCache cache, Map<String, Component> components, Component component) throws IOException {
+        List<Dependency> missing = component.requires().stream().filter(dep -> !components.containsKey(dep.uid())).toList();
+        List<Component> fetched = IOUtil.parallel(missing.stream()
+                .<IOSupplier<Component>>map(dep -> () -> resolve(cache, dep.uid(), dep.version()))
+                .toList());
+        for (Component resolved : fetched) {
+            // Might have been required by a component resolved earlier in this loop
+            if (!components.containsKey(resolved.uid())) {
                 components.put(resolved.uid(), resolved);
-                addDependencies(components, resolved);
+                addDependencies(cache, components, resolved);
             }
         }
     }
 
-    public static Component resolve(String uid, String version) throws IOException {
-        JsonObject json = fetch("/" + uid + "/" + version + ".json");
+    public static Component resolve(HttpCache cache, String uid, String version) throws IOException {
+        URL url = new URL(ENDPOINT + "/" + uid + "/" + version + ".json");
+        // Component versions don't change unless they are marked volatile, those are always revalidated
+        JsonObject json = read(cache.get(url, HttpCache.IMMUTABLE));
+        if (json.has("volatile") && json.get("volatile").getAsBoolean()) {
+            json = read(cache.get(url));
+        }
         String name = json.has("name") ? json.get("name").getAsString() : uid;
         boolean isVolatile = json.has("volatile") && json.get("volatile").getAsBoolean();
         ImmutableList.Builder<Dependency> requires = ImmutableList.builder();
@@ -96,12 +112,10 @@ public class MultiMcAPI {
         return new Component(uid, version, name, isVolatile, requires.build());
     }
 
-    private static JsonObject fetch(String endpoint) throws IOException {
-        URL url = new URL(ENDPOINT + endpoint);
-        Reader reader = new InputStreamReader(url.openStream());
-        JsonObject json = ModGradle.INTERNAL.fromJson(reader, JsonObject.class);
-        reader.close();
-        return json;
+    private static JsonObject read(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return ModGradle.INTERNAL.fromJson(reader, JsonObject.class);
+        }
     }
 
     public record Component(String uid, String version, String name, boolean isVolatile, ImmutableList<Dependency> requires) {
@@ -128,10 +142,6 @@ public class MultiMcAPI {
 
     public record Dependency(String uid, String version, @Nullable String suggest) {
 
-        public Component resolve() throws IOException {
-            return MultiMcAPI.resolve(this.uid, this.version);
-        }
-
         public JsonObject toJson() {
             JsonObject json = new JsonObject();
             json.addProperty("uid", this.uid());
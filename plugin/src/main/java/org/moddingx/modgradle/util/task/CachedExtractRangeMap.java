@@ -0,0 +1,87 @@
+package org.moddingx.modgradle.util.task;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import net.minecraftforge.gradle.common.tasks.ExtractRangeMap;
+import org.apache.commons.io.file.PathUtils;
+import org.gradle.api.tasks.Internal;
+import org.moddingx.modgradle.util.cache.CacheUtil;
+import org.moddingx.modgradle.util.cache.FileHashCache;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link ExtractRangeMap} task, that passes the range map of the previous run as cache to srg2source.
+ * srg2source keeps ranges of every source file together with the hash of its content, so only changed files
+ * are parsed again. The previous range map is only reused if the classpath and java level are unchanged.
+ */
+public abstract class CachedExtractRangeMap extends ExtractRangeMap {
+
+    @Nullable
+    private Path currentCache = null;
+
+    public CachedExtractRangeMap() {
+        this.doFirst(t -> {
+            try {
+                Path cacheDir = this.getCacheDirectory();
+                Path cache = cacheDir.resolve(this.fingerprint() + ".txt");
+                if (!Files.isRegularFile(cache) && Files.isDirectory(cacheDir)) {
+                    // Classpath or java level changed, the old range maps are useless now.
+                    PathUtils.cleanDirectory(cacheDir);
+                }
+                this.currentCache = cache;
+            } catch (IOException e) {
+                // Run without cache
+                this.currentCache = null;
+                this.getLogger().warn("Failed to load range map cache: " + e.getMessage());
+            }
+        });
+        this.doLast(t -> {
+            if (this.currentCache != null) {
+                try {
+                    Path output = this.getOutput().get().getAsFile().toPath();
+                    CacheUtil.publish(this.currentCache, out -> Files.copy(output, out));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+    }
+
+    /**
+     * The directory, where range maps of previous runs are kept.
+     */
+    @Internal
+    public Path getCacheDirectory() {
+        return this.getProject().file("build").toPath().resolve(this.getName()).resolve("cache");
+    }
+
+    @Override
+    protected List<String> filterArgs(List<String> args) {
+        List<String> filtered = new ArrayList<>(super.filterArgs(args));
+        if (this.currentCache != null && Files.isRegularFile(this.currentCache)) {
+            filtered.add("--cache");
+            filtered.add(this.currentCache.toAbsolutePath().normalize().toString());
+        }
+        return filtered;
+    }
+
+    private String fingerprint() throws IOException {
+        FileHashCache hashes = FileHashCache.create(this.getProject());
+        Hasher hasher = Hashing.sha256().newHasher();
+        hasher.putString(this.getSourceCompatibility().getOrElse(""), StandardCharsets.UTF_8);
+        for (File file : this.getDependencies()) {
+            hasher.putString(file.getName(), StandardCharsets.UTF_8);
+            hasher.putBytes(hashes.hash(file.toPath()).asBytes());
+        }
+        return hasher.hash().toString();
+    }
+}
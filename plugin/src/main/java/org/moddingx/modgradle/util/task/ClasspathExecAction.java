@@ -0,0 +1,143 @@
+package org.moddingx.modgradle.util.task;
+
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the main method of a tool inside a gradle worker process. The worker process is reused for later
+ * invocations with the same java executable, so the tool runs in a warm JVM. The tool is loaded in its own
+ * class loader that only sees the tool classpath and the JDK, so it does not conflict with the libraries
+ * of ModGradle.
+ */
+public abstract class ClasspathExecAction implements WorkAction<ClasspathExecAction.Params> {
+
+    // How many tool class loaders a worker process keeps at most
+    private static final int MAX_LOADERS = 4;
+
+    // This only lives in the worker process. Class loaders are reused for the same tool classpath,
+    // so classes of a tool stay loaded and compiled between invocations. The least recently used
+    // loader is closed when there are too many.
+    private static final Map<List<File>, URLClassLoader> LOADERS = new LinkedHashMap<>(16, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<File>, URLClassLoader> eldest) {
+            if (this.size() > MAX_LOADERS) {
+                try {
+                    eldest.getValue().close();
+                } catch (IOException e) {
+                    // Not critical, the loader is unreachable anyway
+                }
+                return true;
+            }
+            return false;
+        }
+    };
+
+    @Override
+    public void execute() {
+        PrintStream stdout = System.out;
+        PrintStream stderr = System.err;
+        try (PrintStream log = new PrintStream(Files.newOutputStream(this.getParameters().getLogFile().get().getAsFile().toPath(), StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            // A worker process only runs one action at a time, so redirecting the output streams is safe.
+            System.setOut(log);
+            System.setErr(new PrintStream(new OutputStream() {
+
+                @Override
+                public void write(int data) {
+                    stderr.write(data);
+                    log.write(data);
+                }
+
+                @Override
+                public void write(@Nonnull byte[] data, int off, int len) {
+                    stderr.write(data, off, len);
+                    log.write(data, off, len);
+                }
+
+                @Override
+                public void flush() {
+                    stderr.flush();
+                    log.flush();
+                }
+            }, true));
+            Thread thread = Thread.currentThread();
+            ClassLoader contextLoader = thread.getContextClassLoader();
+            try {
+                ClassLoader loader = loader(List.copyOf(this.getParameters().getClasspath().getFiles()));
+                thread.setContextClassLoader(loader);
+                Class<?> mainClass = Class.forName(this.getParameters().getMainClass().get(), true, loader);
+                Method main = mainClass.getMethod("main", String[].class);
+                main.invoke(null, (Object) this.getParameters().getArgs().get().toArray(String[]::new));
+            } catch (InvocationTargetException e) {
+                throw new RuntimeException("Tool failed: " + this.getParameters().getMainClass().get(), e.getCause());
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException("Failed to run tool: " + this.getParameters().getMainClass().get(), e);
+            } finally {
+                thread.setContextClassLoader(contextLoader);
+                System.out.flush();
+                System.err.flush();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write log file", e);
+        } finally {
+            System.setOut(stdout);
+            System.setErr(stderr);
+        }
+    }
+
+    // A worker process only runs one action at a time, but different actions may run on different threads.
+    private static ClassLoader loader(List<File> classpath) {
+        synchronized (LOADERS) {
+            URLClassLoader loader = LOADERS.get(classpath);
+            if (loader == null) {
+                loader = createLoader(classpath);
+                LOADERS.put(classpath, loader);
+            }
+            return loader;
+        }
+    }
+
+    private static URLClassLoader createLoader(List<File> classpath) {
+        List<URL> urls = new ArrayList<>();
+        for (File file : classpath) {
+            try {
+                urls.add(file.toURI().toURL());
+            } catch (MalformedURLException e) {
+                throw new RuntimeException("Invalid classpath entry: " + file, e);
+            }
+        }
+        return new URLClassLoader(urls.toArray(URL[]::new), ClassLoader.getPlatformClassLoader());
+    }
+
+    public interface Params extends WorkParameters {
+
+        ConfigurableFileCollection getClasspath();
+
+        Property<String> getMainClass();
+
+        ListProperty<String> getArgs();
+
+        RegularFileProperty getLogFile();
+    }
+}
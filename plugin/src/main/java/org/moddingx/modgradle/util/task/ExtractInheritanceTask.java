@@ -4,9 +4,7 @@ import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
-import org.gradle.api.tasks.InputDirectory;
-import org.gradle.api.tasks.InputFiles;
-import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.*;
 import org.moddingx.modgradle.ModGradle;
 import org.moddingx.modgradle.api.task.ClasspathExec;
 import org.moddingx.modgradle.util.ArgumentUtil;
@@ -14,6 +12,7 @@ import org.moddingx.modgradle.util.ArgumentUtil;
 import java.util.List;
 import java.util.Map;
 
+@CacheableTask
 public abstract class ExtractInheritanceTask extends ClasspathExec {
 
     public ExtractInheritanceTask() {
@@ -24,9 +23,10 @@ public abstract class ExtractInheritanceTask extends ClasspathExec {
     }
 
     @InputDirectory
+    @PathSensitive(PathSensitivity.RELATIVE)
     public abstract DirectoryProperty getClasses();
 
-    @InputFiles
+    @Classpath
     public abstract Property<FileCollection> getLibraryPath();
 
     @OutputFile
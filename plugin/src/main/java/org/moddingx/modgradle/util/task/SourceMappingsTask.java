@@ -1,8 +1,7 @@
 package org.moddingx.modgradle.util.task;
 
 import org.gradle.api.file.RegularFileProperty;
-import org.gradle.api.tasks.InputFile;
-import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.*;
 import org.moddingx.modgradle.ModGradle;
 import org.moddingx.modgradle.api.task.ClasspathExec;
 import org.moddingx.modgradle.util.ArgumentUtil;
@@ -10,6 +9,7 @@ import org.moddingx.modgradle.util.ArgumentUtil;
 import java.util.List;
 import java.util.Map;
 
+@CacheableTask
 public abstract class SourceMappingsTask extends ClasspathExec {
     
     public SourceMappingsTask() {
@@ -18,9 +18,11 @@ public abstract class SourceMappingsTask extends ClasspathExec {
     }
 
     @InputFile
+    @PathSensitive(PathSensitivity.NONE)
     public abstract RegularFileProperty getInheritance();
 
     @InputFile
+    @PathSensitive(PathSensitivity.NONE)
     public abstract RegularFileProperty getMappings();
 
     @OutputFile
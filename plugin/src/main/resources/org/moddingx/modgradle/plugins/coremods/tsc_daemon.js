@@ -0,0 +1,45 @@
+// Long running TypeScript compiler used by ModGradle.
+// Reads the path of a tsconfig.json per line from stdin, builds it like
+// 'tsc -b' and reports the exit status in a marker line on stdout.
+// Exits when stdin is closed or when idle for the time given in milliseconds.
+
+const readline = require('readline');
+const ts = require(process.argv[2]);
+const idleTimeout = Number(process.argv[3]);
+
+const MARKER = '@@modgradle-tsc ';
+
+const formatHost = {
+    getCanonicalFileName: fileName => fileName,
+    getCurrentDirectory: () => ts.sys.getCurrentDirectory(),
+    getNewLine: () => ts.sys.newLine
+};
+
+function report(diagnostic) {
+    process.stdout.write(ts.formatDiagnostic(diagnostic, formatHost));
+}
+
+const host = ts.createSolutionBuilderHost(ts.sys, undefined, report, report);
+
+let idleTimer = null;
+
+function resetIdleTimer() {
+    if (idleTimer !== null) clearTimeout(idleTimer);
+    idleTimer = setTimeout(() => process.exit(0), idleTimeout);
+}
+
+resetIdleTimer();
+
+const input = readline.createInterface({ input: process.stdin });
+input.on('close', () => process.exit(0));
+input.on('line', config => {
+    let status;
+    try {
+        status = ts.createSolutionBuilder(host, [config], {}).build();
+    } catch (err) {
+        process.stdout.write(String((err && err.stack) || err) + '\n');
+        status = 1;
+    }
+    process.stdout.write('\n' + MARKER + status + '\n');
+    resetIdleTimer();
+});
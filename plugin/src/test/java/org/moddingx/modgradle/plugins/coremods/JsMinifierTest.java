@@ -0,0 +1,44 @@
+package org.moddingx.modgradle.plugins.coremods;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class JsMinifierTest {
+
+    @Test
+    public void testPostfixIncrementThenDivide() {
+        assertEquals("var n=i++/2;var u=\"a/b//c\";var k=1;\n", JsMinifier.minify("var n = i++ / 2; var u = \"a/b//c\"; var k = 1;"));
+        assertEquals("var n=i--/2/k;\n", JsMinifier.minify("var n = i-- / 2 / k;"));
+        assertEquals("var n=a[i]++/2;\n", JsMinifier.minify("var n = a[i]++ / 2;"));
+    }
+
+    @Test
+    public void testSeparateSigns() {
+        assertEquals("var a=b+ +c;var d=e- -f;\n", JsMinifier.minify("var a = b + +c; var d = e - -f;"));
+    }
+
+    @Test
+    public void testRegexAfterCondition() {
+        assertEquals("if(a)/b/.test(c);\n", JsMinifier.minify("if (a) /b/.test(c);"));
+        assertEquals("while(x(y))/b\\//g.exec(c);\n", JsMinifier.minify("while (x(y)) /b\\//g.exec(c);"));
+    }
+
+    @Test
+    public void testDivideAfterParenthesis() {
+        assertEquals("var n=(a+b)/2/c;\n", JsMinifier.minify("var n = (a + b) / 2 / c;"));
+    }
+
+    @Test
+    public void testRegex() {
+        assertEquals("var r=/a\\/b/g;var q=x/y;\n", JsMinifier.minify("var r = /a\\/b/g; var q = x / y;"));
+        assertEquals("f(a,/[/]/);\n", JsMinifier.minify("f(a, /[/]/);"));
+        assertEquals("return/x/.test(a);\n", JsMinifier.minify("return /x/.test(a);"));
+    }
+
+    @Test
+    public void testCommentMarkersInStrings() {
+        assertEquals("var s='http://x'\nvar t=`a//b`;\n", JsMinifier.minify("var s = 'http://x' // comment\nvar t = `a//b`;"));
+        assertEquals("var s=\"/* a */\";\n", JsMinifier.minify("var s = \"/* a */\"; /* b */"));
+    }
+}